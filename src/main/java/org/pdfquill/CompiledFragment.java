@@ -0,0 +1,49 @@
+package org.pdfquill;
+
+import org.pdfquill.writer.FragmentSlice;
+
+import java.util.List;
+
+/**
+ * Immutable block of content laid out once and stamped into later documents as Form XObjects, see
+ * {@link PDFQuill#compileFragment(FragmentRecorder)}. Fragments hold no reference to the document
+ * they were recorded in, so a single instance can be printed by any number of printers and threads.
+ * <p>
+ * A fragment is split into one slice per page its recording took. Each slice is kept together: when
+ * it does not fit in the space left on the page, it starts a new page.
+ */
+public final class CompiledFragment {
+    private final List<FragmentSlice> slices;
+    private final float startX;
+    private final float maxLineWidth;
+    private final float height;
+
+    CompiledFragment(List<FragmentSlice> slices, float startX, float maxLineWidth) {
+        this.slices = slices;
+        this.startX = startX;
+        this.maxLineWidth = maxLineWidth;
+        float total = 0f;
+        for (FragmentSlice slice : slices) {
+            total += slice.getHeight();
+        }
+        this.height = total;
+    }
+
+    /**
+     * @return recorded slices in print order
+     */
+    public List<FragmentSlice> getSlices() {
+        return this.slices;
+    }
+
+    /**
+     * @return vertical space taken by the whole fragment, in points
+     */
+    public float getHeight() {
+        return this.height;
+    }
+
+    boolean fits(float otherStartX, float otherMaxLineWidth) {
+        return Float.compare(this.startX, otherStartX) == 0 && Float.compare(this.maxLineWidth, otherMaxLineWidth) == 0;
+    }
+}
@@ -0,0 +1,124 @@
+package org.pdfquill;
+
+import org.pdfquill.exceptions.PrinterException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Description of one document rendered by {@link PDFQuill#renderBatch(java.util.List, java.util.concurrent.Executor)}:
+ * either a printer configuration or factory plus the calls printing the content, or a compiled
+ * {@link DocumentTemplate} plus its slot values. Specs are immutable and rendered on a worker thread.
+ */
+public final class DocumentSpec {
+    private final PDFQuill.Builder printerBuilder;
+    private final PDFQuillFactory printerFactory;
+    private final FragmentRecorder content;
+    private final DocumentTemplate template;
+    private final Map<String, String> values;
+
+    private DocumentSpec(PDFQuill.Builder printerBuilder, PDFQuillFactory printerFactory, FragmentRecorder content,
+                         DocumentTemplate template, Map<String, String> values) {
+        this.printerBuilder = printerBuilder;
+        this.printerFactory = printerFactory;
+        this.content = content;
+        this.template = template;
+        this.values = values;
+    }
+
+    /**
+     * Describes a document printed by the supplied calls on a printer built from the configuration.
+     * The builder is copied, but the layout, font and permission objects handed to it are shared and
+     * must not be modified while the document renders.
+     *
+     * @param printerBuilder printer configuration
+     * @param content        calls printing the document content
+     * @return document spec
+     */
+    public static DocumentSpec of(PDFQuill.Builder printerBuilder, FragmentRecorder content) {
+        if (printerBuilder == null) {
+            throw new IllegalArgumentException("printerBuilder cannot be null");
+        }
+        if (content == null) {
+            throw new IllegalArgumentException("content cannot be null");
+        }
+        return new DocumentSpec(printerBuilder.copy(), null, content, null, null);
+    }
+
+    /**
+     * Describes a document printed by the supplied calls on a printer from the factory.
+     *
+     * @param printerFactory factory supplying the printer
+     * @param content        calls printing the document content
+     * @return document spec
+     */
+    public static DocumentSpec of(PDFQuillFactory printerFactory, FragmentRecorder content) {
+        if (printerFactory == null) {
+            throw new IllegalArgumentException("printerFactory cannot be null");
+        }
+        if (content == null) {
+            throw new IllegalArgumentException("content cannot be null");
+        }
+        return new DocumentSpec(null, printerFactory, content, null, null);
+    }
+
+    /**
+     * Describes a document rendered from a template with the supplied slot values, which are copied.
+     *
+     * @param template compiled template
+     * @param values   slot values by name
+     * @return document spec
+     */
+    public static DocumentSpec of(DocumentTemplate template, Map<String, String> values) {
+        if (template == null) {
+            throw new IllegalArgumentException("template cannot be null");
+        }
+        if (values == null) {
+            throw new IllegalArgumentException("values cannot be null");
+        }
+        return new DocumentSpec(null, null, null, template, Collections.unmodifiableMap(new HashMap<>(values)));
+    }
+
+    byte[] render(BooleanSupplier cancelled) {
+        PDFQuill printer = print(cancelled);
+        try {
+            return printer.getPDFBytes();
+        } catch (RuntimeException e) {
+            printer.discard();
+            throw e;
+        }
+    }
+
+    void renderTo(OutputStream out, BooleanSupplier cancelled) {
+        PDFQuill printer = print(cancelled);
+        try {
+            printer.writeTo(out);
+        } catch (RuntimeException e) {
+            printer.discard();
+            throw e;
+        }
+    }
+
+    private PDFQuill print(BooleanSupplier cancelled) {
+        if (this.template != null) {
+            return this.template.render(this.values, cancelled);
+        }
+
+        PDFQuill printer = this.printerFactory != null ? this.printerFactory.newPrinter() : this.printerBuilder.build();
+        printer.cancelWhen(cancelled);
+        try {
+            this.content.record(printer);
+        } catch (IOException e) {
+            printer.discard();
+            throw new PrinterException("Failed to print document content", e);
+        } catch (RuntimeException e) {
+            printer.discard();
+            throw e;
+        }
+        return printer;
+    }
+}
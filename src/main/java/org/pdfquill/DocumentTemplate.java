@@ -0,0 +1,286 @@
+package org.pdfquill;
+
+import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.exceptions.PrinterException;
+import org.pdfquill.settings.font.FontType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Document structure compiled once and rendered many times with different values. Fixed content is
+ * recorded and laid out at compile time into {@link CompiledFragment}s (wrapped lines, measured text,
+ * encoded images and barcodes), while named slots are the only parts printed, wrapped and measured
+ * again on every {@link #render(Map)}.
+ * <p>
+ * Consecutive fixed blocks are compiled together into one fragment, which is kept together on the
+ * page like any other fragment. Templates are immutable and can be rendered from several threads.
+ *
+ * <pre>{@code
+ * DocumentTemplate receipt = DocumentTemplate.builder()
+ *         .fixed(printer -> printer.printLine("PDF QUILL STORE", FontType.BOLD).printLine("221B Baker Street"))
+ *         .lines("items")
+ *         .line("total", FontType.BOLD)
+ *         .barcode("code", BarcodeType.QRCODE)
+ *         .compile(PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM));
+ *
+ * byte[] pdf = receipt.render(values).getPDFBytes();
+ * }</pre>
+ */
+public final class DocumentTemplate {
+    private final PDFQuillFactory printerFactory;
+    private final List<Step> steps;
+
+    private DocumentTemplate(PDFQuillFactory printerFactory, List<Step> steps) {
+        this.printerFactory = printerFactory;
+        this.steps = steps;
+    }
+
+    /**
+     * @return a new builder describing the template structure
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Prints the template into a new document, filling every slot from the supplied values. The
+     * returned printer can be extended further before its bytes are read.
+     *
+     * @param values slot values by name; multi-line slots split their value on {@code '\n'}
+     * @return printer holding the rendered document
+     * @throws PrinterException when a slot has no value or printing fails
+     */
+    public PDFQuill render(Map<String, String> values) throws PrinterException {
+        return render(values, null);
+    }
+
+    PDFQuill render(Map<String, String> values, BooleanSupplier cancelled) throws PrinterException {
+        if (values == null) {
+            throw new IllegalArgumentException("values cannot be null");
+        }
+
+        PDFQuill printer = this.printerFactory.newPrinter();
+        printer.cancelWhen(cancelled);
+        try {
+            for (Step step : this.steps) {
+                step.render(printer, values);
+            }
+        } catch (RuntimeException e) {
+            printer.discard();
+            throw e;
+        }
+        return printer;
+    }
+
+    /**
+     * @return names of the slots filled by {@link #render(Map)}, in print order
+     */
+    public List<String> getSlotNames() {
+        List<String> names = new ArrayList<>();
+        for (Step step : this.steps) {
+            if (step instanceof SlotStep) {
+                names.add(((SlotStep) step).name);
+            }
+        }
+        return names;
+    }
+
+    private static String valueOf(Map<String, String> values, String name) {
+        String value = values.get(name);
+        if (value == null) {
+            throw new PrinterException("No value for template slot '" + name + "'");
+        }
+        return value;
+    }
+
+    private interface Step {
+        void render(PDFQuill printer, Map<String, String> values);
+    }
+
+    private static final class FragmentStep implements Step {
+        private final CompiledFragment fragment;
+
+        private FragmentStep(CompiledFragment fragment) {
+            this.fragment = fragment;
+        }
+
+        @Override
+        public void render(PDFQuill printer, Map<String, String> values) {
+            printer.printFragment(this.fragment);
+        }
+    }
+
+    private enum SlotKind {
+        LINE, LINES, BARCODE
+    }
+
+    private static final class SlotStep implements Step {
+        private final String name;
+        private final SlotKind kind;
+        private final FontType fontType;
+        private final BarcodeType barcodeType;
+
+        private SlotStep(String name, SlotKind kind, FontType fontType, BarcodeType barcodeType) {
+            this.name = name;
+            this.kind = kind;
+            this.fontType = fontType;
+            this.barcodeType = barcodeType;
+        }
+
+        @Override
+        public void render(PDFQuill printer, Map<String, String> values) {
+            String value = valueOf(values, this.name);
+            switch (this.kind) {
+                case LINE:
+                    printer.printLine(value, this.fontType);
+                    break;
+                case LINES:
+                    for (String line : value.split("\n", -1)) {
+                        printer.printLine(line, this.fontType);
+                    }
+                    break;
+                default:
+                    printer.printBarcode(value, this.barcodeType);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Builder describing the sequence of fixed blocks and slots of a template.
+     */
+    public static final class Builder {
+        private final List<Object> parts = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Appends fixed content, recorded once when the template is compiled.
+         *
+         * @param recorder calls printing the fixed content
+         * @return this builder
+         */
+        public Builder fixed(FragmentRecorder recorder) {
+            if (recorder == null) {
+                throw new IllegalArgumentException("recorder cannot be null");
+            }
+            this.parts.add(recorder);
+            return this;
+        }
+
+        /**
+         * Appends a slot printed as one wrapped line in the default font.
+         *
+         * @param name slot name
+         * @return this builder
+         */
+        public Builder line(String name) {
+            return line(name, FontType.DEFAULT);
+        }
+
+        /**
+         * Appends a slot printed as one wrapped line.
+         *
+         * @param name     slot name
+         * @param fontType font style of the line
+         * @return this builder
+         */
+        public Builder line(String name, FontType fontType) {
+            return slot(name, SlotKind.LINE, fontType, null);
+        }
+
+        /**
+         * Appends a slot whose value is split on {@code '\n'}, printing each part as a wrapped line.
+         *
+         * @param name slot name
+         * @return this builder
+         */
+        public Builder lines(String name) {
+            return lines(name, FontType.DEFAULT);
+        }
+
+        /**
+         * Appends a slot whose value is split on {@code '\n'}, printing each part as a wrapped line.
+         *
+         * @param name     slot name
+         * @param fontType font style of the lines
+         * @return this builder
+         */
+        public Builder lines(String name, FontType fontType) {
+            return slot(name, SlotKind.LINES, fontType, null);
+        }
+
+        /**
+         * Appends a slot printed as a barcode of the default size.
+         *
+         * @param name        slot name
+         * @param barcodeType symbology to render
+         * @return this builder
+         */
+        public Builder barcode(String name, BarcodeType barcodeType) {
+            if (barcodeType == null) {
+                throw new IllegalArgumentException("barcodeType cannot be null");
+            }
+            return slot(name, SlotKind.BARCODE, null, barcodeType);
+        }
+
+        private Builder slot(String name, SlotKind kind, FontType fontType, BarcodeType barcodeType) {
+            if (name == null || name.isEmpty()) {
+                throw new IllegalArgumentException("slot name cannot be empty");
+            }
+            if (kind != SlotKind.BARCODE && fontType == null) {
+                throw new IllegalArgumentException("fontType cannot be null");
+            }
+            this.parts.add(new SlotStep(name, kind, fontType, barcodeType));
+            return this;
+        }
+
+        /**
+         * Lays out the fixed content with the supplied printer configuration. Every document rendered
+         * from the template uses the same configuration, through a {@link PDFQuillFactory}.
+         *
+         * @param printerBuilder printer configuration
+         * @return compiled template
+         * @throws PrinterException when recording the fixed content fails
+         */
+        public DocumentTemplate compile(PDFQuill.Builder printerBuilder) throws PrinterException {
+            if (printerBuilder == null) {
+                throw new IllegalArgumentException("printerBuilder cannot be null");
+            }
+
+            PDFQuillFactory printerFactory = printerBuilder.buildFactory();
+            PDFQuill prototype = printerFactory.newPrinter();
+            prototype.discard();
+            List<Step> steps = new ArrayList<>();
+            List<FragmentRecorder> pending = new ArrayList<>();
+            for (Object part : this.parts) {
+                if (part instanceof FragmentRecorder) {
+                    pending.add((FragmentRecorder) part);
+                    continue;
+                }
+                flushFixed(prototype, pending, steps);
+                steps.add((Step) part);
+            }
+            flushFixed(prototype, pending, steps);
+            return new DocumentTemplate(printerFactory, Collections.unmodifiableList(steps));
+        }
+
+        private static void flushFixed(PDFQuill prototype, List<FragmentRecorder> pending, List<Step> steps) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            final List<FragmentRecorder> recorders = new ArrayList<>(pending);
+            pending.clear();
+            steps.add(new FragmentStep(prototype.compileFragment(printer -> {
+                for (FragmentRecorder recorder : recorders) {
+                    recorder.record(printer);
+                }
+            })));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.pdfquill;
+
+import java.io.IOException;
+
+/**
+ * Block of {@link PDFQuill} calls recorded by {@link PDFQuill#compileFragment(FragmentRecorder)}, or printing
+ * the content of a {@link DocumentSpec}.
+ */
+@FunctionalInterface
+public interface FragmentRecorder {
+
+    /**
+     * Prints the fragment content.
+     *
+     * @param printer recording printer configured like the one compiling the fragment, or the printer of
+     *                the document being rendered
+     * @throws IOException when printing an image fails
+     */
+    void record(PDFQuill printer) throws IOException;
+}
@@ -1,27 +1,50 @@
 package org.pdfquill;
 
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.pdfquill.barcode.Barcode;
+import org.pdfquill.barcode.BarcodeCache;
+import org.pdfquill.barcode.BarcodeRequest;
+import org.pdfquill.barcode.BarcodeRenderMode;
 import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.barcode.BarcodeUtils;
 import org.pdfquill.exceptions.PrinterException;
 import org.pdfquill.formatter.ContentFormatter;
+import org.pdfquill.image.EncodedImage;
+import org.pdfquill.image.ImageCache;
 import org.pdfquill.measurements.MeasurementUtils;
 import org.pdfquill.paper.PaperType;
 import org.pdfquill.settings.font.FontSettings;
 import org.pdfquill.settings.font.FontType;
+import org.pdfquill.settings.CompressionProfile;
 import org.pdfquill.settings.PageLayout;
 import org.pdfquill.settings.permissions.PermissionSettings;
+import org.pdfquill.writer.FragmentSlice;
 import org.pdfquill.writer.PDFWriter;
 import org.pdfquill.writer.TextBuilder;
+import org.pdfquill.writer.WriterPool;
 
 import javax.xml.bind.DatatypeConverter;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BooleanSupplier;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Facade responsible for producing print-ready PDFs using a fluent API.
@@ -30,6 +53,13 @@ public class PDFQuill {
     private final PageLayout pageLayout;
     private final PermissionSettings permissionSettings;
     private final PDFWriter pdfWriter;
+    private final ImageCache imageCache;
+    private final BarcodeRenderMode barcodeRenderMode;
+    private final BarcodeCache barcodeCache;
+    private final CompressionProfile compressionProfile;
+    private final boolean compactOutput;
+    private final MemoryUsageSetting memoryUsage;
+    private final WriterPool writerPool;
     private byte[] pdf;
     private File pdfFile;
 
@@ -56,6 +86,9 @@ public class PDFQuill {
             float marginBottom = builder.marginBottom != null ? builder.marginBottom : layout.getMarginBottom();
             layout.setMargins(marginLeft, marginRight, marginTop, marginBottom);
         }
+        if (builder.printerDpi != null) {
+            layout.setPrinterDpi(builder.printerDpi);
+        }
         if (builder.fontSettings != null) {
             layout.setFontSettings(copyFontSettings(builder.fontSettings));
         }
@@ -70,7 +103,54 @@ public class PDFQuill {
             builder.permissionSettingsCustomizer.accept(this.permissionSettings);
         }
 
-        this.pdfWriter = new PDFWriter(this.pageLayout);
+        this.imageCache = builder.imageCache != null ? builder.imageCache : ImageCache.shared();
+        this.barcodeRenderMode = builder.barcodeRenderMode;
+        this.barcodeCache = builder.barcodeCache != null ? builder.barcodeCache : BarcodeCache.shared();
+        this.compressionProfile = builder.compressionProfile;
+        this.compactOutput = builder.compactOutput;
+        this.memoryUsage = builder.memoryUsage;
+        this.writerPool = null;
+        this.pdfWriter = new PDFWriter(this.pageLayout, builder.compressionProfile, builder.compactOutput, builder.memoryUsage);
+    }
+
+    private PDFQuill(PDFQuill parent, PageLayout pageLayout, PDFWriter pdfWriter, WriterPool writerPool) {
+        this.pageLayout = pageLayout;
+        this.permissionSettings = parent.permissionSettings;
+        this.imageCache = parent.imageCache;
+        this.barcodeRenderMode = parent.barcodeRenderMode;
+        this.barcodeCache = parent.barcodeCache;
+        this.compressionProfile = parent.compressionProfile;
+        this.compactOutput = parent.compactOutput;
+        this.memoryUsage = parent.memoryUsage;
+        this.writerPool = writerPool;
+        this.pdfWriter = pdfWriter;
+    }
+
+    /**
+     * Creates a printer with this printer's settings writing a new, empty document with buffers taken
+     * from the supplied pool, or allocated for the document when it is {@code null}.
+     */
+    PDFQuill newDocument(WriterPool writerPool) {
+        PageLayout layout = new PageLayout(this.pageLayout);
+        PDFWriter writer = writerPool != null
+                ? new PDFWriter(layout, this.compactOutput, writerPool)
+                : new PDFWriter(layout, this.compressionProfile, this.compactOutput, this.memoryUsage);
+        return new PDFQuill(this, layout, writer, writerPool);
+    }
+
+    /**
+     * Drops the document being written without saving it.
+     */
+    void discard() {
+        closeQuietly(this.pdfWriter);
+    }
+
+    /**
+     * Abandons the document with a {@link CancellationException} at the next page
+     * or save once the supplied condition holds.
+     */
+    void cancelWhen(BooleanSupplier cancelled) {
+        this.pdfWriter.setCancellation(cancelled);
     }
 
     /**
@@ -105,16 +185,14 @@ public class PDFQuill {
     }
 
     /**
-     * Returns the generated PDF as a byte array. The returned array is a copy and can be mutated safely.
+     * Returns the generated PDF as a byte array. The array is the printer's cached output, shared with
+     * later calls and the other accessors rather than copied; copy it before modifying it.
      *
      * @return PDF bytes
      * @throws PrinterException when writing the PDF fails
      */
     public byte[] getPDFBytes() throws PrinterException {
-        byte[] bytes = resolvePdfBytes();
-        byte[] copy = new byte[bytes.length];
-        System.arraycopy(bytes, 0, copy, 0, bytes.length);
-        return copy;
+        return resolvePdfBytes();
     }
 
     /**
@@ -167,6 +245,51 @@ public class PDFQuill {
         }
     }
 
+    /**
+     * Finalises the document (if necessary) and serialises it straight into the supplied stream, without
+     * keeping an in-memory copy. The stream is flushed but not closed.
+     * <p>
+     * When the document has already been finalised through one of the byte-based accessors, the cached
+     * bytes are written instead. Otherwise the output is not retained, so later calls to
+     * {@link #getPDFBytes()} and friends will fail.
+     *
+     * @param out destination stream
+     * @throws PrinterException when writing the PDF fails
+     */
+    public void writeTo(OutputStream out) throws PrinterException {
+        if (out == null) {
+            throw new IllegalArgumentException("out cannot be null");
+        }
+
+        try {
+            if (this.pdf != null) {
+                out.write(this.pdf);
+                out.flush();
+                return;
+            }
+            if (this.pdfWriter.isClosed()) {
+                throw new PrinterException("PDF content is not available after closure");
+            }
+            this.pdfWriter.writeTo(out);
+        } catch (IOException e) {
+            throw new PrinterException("Failed to write PDF to output stream", e);
+        }
+    }
+
+    /**
+     * Finalises the document (if necessary) and serialises it straight into the supplied channel.
+     * The channel is left open. See {@link #writeTo(OutputStream)} for the caching rules.
+     *
+     * @param channel destination channel
+     * @throws PrinterException when writing the PDF fails
+     */
+    public void writeTo(WritableByteChannel channel) throws PrinterException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel cannot be null");
+        }
+        writeTo(Channels.newOutputStream(channel));
+    }
+
     /**
      * Explicitly finalises the document, equivalent to calling {@link #getBase64PDFBytes()}.
      *
@@ -177,17 +300,15 @@ public class PDFQuill {
     }
 
     private byte[] resolvePdfBytes() throws PrinterException {
-        if (this.pdfWriter.isClosed()) {
-            if (this.pdf == null) {
+        if (this.pdf == null) {
+            if (this.pdfWriter.isClosed()) {
                 throw new PrinterException("PDF content is not available after closure");
             }
-            return this.pdf;
-        }
-
-        try {
-            this.pdf = this.pdfWriter.saveAndGetBytes();
-        } catch (IOException e) {
-            throw new PrinterException("Failed to create PDF", e);
+            try {
+                this.pdf = this.pdfWriter.saveAndGetBytes();
+            } catch (IOException e) {
+                throw new PrinterException("Failed to write PDF to output stream", e);
+            }
         }
         return this.pdf;
     }
@@ -296,6 +417,44 @@ public class PDFQuill {
         return this;
     }
 
+    /**
+     * Decodes and compresses an image once and stores it in this printer's {@link ImageCache}
+     * (the JVM-wide shared cache unless another was supplied to the builder), so any later document
+     * can print it through {@link #printImage(String)} without decoding or re-compressing it. An image
+     * larger than the cache's byte budget is not kept, so printing it by id fails.
+     *
+     * @param imageId    identifier used to print the image later
+     * @param imageBytes image file contents
+     * @return fluent reference to this instance
+     * @throws IOException when the image cannot be read or encoded
+     */
+    public PDFQuill registerImage(String imageId, byte[] imageBytes) throws IOException {
+        this.imageCache.register(imageId, imageBytes);
+        return this;
+    }
+
+    /**
+     * Prints an image previously registered through {@link #registerImage(String, byte[])} using
+     * default dimensions (100x100 points).
+     *
+     * @param imageId identifier supplied at registration
+     * @return fluent reference to this instance
+     * @throws PrinterException when no image is registered under the id or drawing fails
+     */
+    public PDFQuill printImage(String imageId) throws PrinterException {
+        EncodedImage image = this.imageCache.get(imageId);
+        if (image == null) {
+            throw new PrinterException("No image registered under id '" + imageId + "'");
+        }
+
+        try {
+            this.pdfWriter.writeImage(image, 100, 100);
+        } catch (IOException e) {
+            throw new PrinterException("Failed to write image to the PDF", e);
+        }
+        return this;
+    }
+
     /**
      * Prints a barcode using default height and width.
      *
@@ -309,7 +468,11 @@ public class PDFQuill {
     }
 
     /**
-     * Prints a barcode using explicit dimensions.
+     * Prints a barcode using explicit dimensions. Barcodes are drawn as vector rectangles unless
+     * {@link BarcodeRenderMode#RASTER} was selected on the builder, in which case a 1-bit image is
+     * embedded. Passing {@code 0} for both dimensions keeps one matrix cell per module and sizes the
+     * symbol from its module count: each module spans the same whole number of printer dots (see
+     * {@link PageLayout#getPrinterDpi()}), as large as fits in the default box and the line width.
      *
      * @param code        payload to encode
      * @param barcodeType symbology to render
@@ -319,19 +482,283 @@ public class PDFQuill {
      * @throws PrinterException when barcode generation fails
      */
     public PDFQuill printBarcode(String code, BarcodeType barcodeType, int height, int width) throws PrinterException {
-        try {
-            BufferedImage image = ContentFormatter.createBarcodeImage(code, barcodeType, height, width);
+        Barcode barcode = this.barcodeCache.get(code, barcodeType, width, height);
+        return placeBarcode(barcode, width == 0 && height == 0);
+    }
+
+    /**
+     * Prints a barcode encoded ahead of time, typically by {@link #prepareBarcodes(List, Executor)}.
+     * The barcode is expected to hold one matrix cell per module and is sized like
+     * {@link #printBarcode(String, BarcodeType)}.
+     *
+     * @param barcode encoded barcode
+     * @return fluent reference to this instance
+     * @throws PrinterException when drawing fails
+     */
+    public PDFQuill printBarcode(Barcode barcode) throws PrinterException {
+        if (barcode == null) {
+            throw new IllegalArgumentException("barcode cannot be null");
+        }
+        return placeBarcode(barcode, true);
+    }
+
+    /**
+     * Encodes a batch of barcodes in parallel on the supplied executor, through this printer's
+     * {@link BarcodeCache}. The returned handles are in request order and can be passed to
+     * {@link #printBarcode(Barcode)} from the thread assembling the document.
+     *
+     * @param requests payloads to encode
+     * @param executor executor running the encoding tasks
+     * @return encoded barcodes, in the same order as {@code requests}
+     * @throws PrinterException when any barcode fails to encode
+     */
+    public List<Barcode> prepareBarcodes(List<BarcodeRequest> requests, Executor executor) throws PrinterException {
+        return this.barcodeCache.getAll(requests, executor);
+    }
 
-            float imageHeight = BarcodeType.QRCODE.equals(barcodeType) ? MeasurementUtils.mmToPt(48f) : MeasurementUtils.mmToPt(12f);
-            float imageWidth = BarcodeType.QRCODE.equals(barcodeType) ? MeasurementUtils.mmToPt(48f) : MeasurementUtils.mmToPt(80f);
+    /**
+     * Encodes a batch of barcodes in parallel on the common fork-join pool.
+     *
+     * @param requests payloads to encode
+     * @return encoded barcodes, in the same order as {@code requests}
+     * @throws PrinterException when any barcode fails to encode
+     * @see #prepareBarcodes(List, Executor)
+     */
+    public List<Barcode> prepareBarcodes(List<BarcodeRequest> requests) throws PrinterException {
+        return this.barcodeCache.getAll(requests);
+    }
 
-            this.pdfWriter.writeImage(image, imageWidth, imageHeight);
+    private PDFQuill placeBarcode(Barcode barcode, boolean moduleSized) throws PrinterException {
+        boolean qrCode = BarcodeUtils.isQrCode(barcode.getBarcodeType());
+        try {
+            float imageHeight = qrCode ? MeasurementUtils.mmToPt(48f) : MeasurementUtils.mmToPt(12f);
+            float imageWidth = qrCode ? MeasurementUtils.mmToPt(48f) : MeasurementUtils.mmToPt(80f);
+
+            if (moduleSized) {
+                int dpi = this.pageLayout.getPrinterDpi();
+                int dotsPerModule = BarcodeUtils.getDotsPerModule(barcode.getWidth(),
+                        Math.min(imageWidth, this.pageLayout.getMaxLineWidth()), dpi);
+                int heightDots = qrCode
+                        ? barcode.getHeight() * dotsPerModule
+                        : MeasurementUtils.ptToDots(imageHeight, dpi);
+                imageWidth = MeasurementUtils.dotsToPt(barcode.getWidth() * dotsPerModule, dpi);
+                imageHeight = MeasurementUtils.dotsToPt(heightDots, dpi);
+            }
+            if (this.barcodeRenderMode == BarcodeRenderMode.VECTOR) {
+                this.pdfWriter.writeBarcode(barcode, imageWidth, imageHeight);
+            } else {
+                this.pdfWriter.writeBarcodeImage(barcode, imageWidth, imageHeight);
+            }
         } catch (IOException e) {
             throw new PrinterException("Failed to write barcode to the PDF", e);
         }
         return this;
     }
 
+    /**
+     * Records a block of calls once into an immutable fragment that {@link #printFragment} stamps into
+     * later documents without wrapping, measuring or encoding its content again. The block runs
+     * against a separate printer sharing this printer's layout and settings; this printer's document
+     * is left untouched.
+     *
+     * @param recorder calls to record, starting at the top of an empty page
+     * @return compiled fragment
+     * @throws PrinterException when the block fails or its pages cannot be captured
+     */
+    public CompiledFragment compileFragment(FragmentRecorder recorder) throws PrinterException {
+        if (recorder == null) {
+            throw new IllegalArgumentException("recorder cannot be null");
+        }
+
+        PageLayout recordingLayout = new PageLayout(this.pageLayout);
+        PDFWriter recordingWriter = new PDFWriter(recordingLayout, this.compressionProfile);
+        try {
+            recordingWriter.startRecording();
+            PDFQuill recording = new PDFQuill(this, recordingLayout, recordingWriter, null);
+            recorder.record(recording);
+            return new CompiledFragment(recordingWriter.finishRecording(),
+                    this.pageLayout.getStartX(), this.pageLayout.getMaxLineWidth());
+        } catch (IOException e) {
+            throw new PrinterException("Failed to compile fragment", e);
+        } finally {
+            closeQuietly(recordingWriter);
+        }
+    }
+
+    /**
+     * Stamps a compiled fragment at the current position. Each slice of the fragment is drawn as a
+     * single Form XObject, embedded once per document however often it is printed.
+     *
+     * @param fragment fragment compiled by a printer with the same margins and line width
+     * @return fluent reference to this instance
+     * @throws PrinterException when drawing fails
+     */
+    public PDFQuill printFragment(CompiledFragment fragment) throws PrinterException {
+        if (fragment == null) {
+            throw new IllegalArgumentException("fragment cannot be null");
+        }
+        if (!fragment.fits(this.pageLayout.getStartX(), this.pageLayout.getMaxLineWidth())) {
+            throw new IllegalArgumentException("fragment was compiled for a different page layout");
+        }
+
+        try {
+            for (FragmentSlice slice : fragment.getSlices()) {
+                this.pdfWriter.writeFragmentSlice(slice);
+            }
+        } catch (IOException e) {
+            throw new PrinterException("Failed to write fragment to the PDF", e);
+        }
+        return this;
+    }
+
+    private static void closeQuietly(PDFWriter writer) {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // the recording document is discarded either way
+        }
+    }
+
+    /**
+     * Renders a batch of documents concurrently on the supplied executor, one task per document, and
+     * returns their bytes in input order. Every document gets its own printer and PDF document; the
+     * state they share (standard fonts and their metrics, image and barcode caches, compiled
+     * fragments and templates) is safe to use from several threads. When a document fails, the
+     * documents still rendering are cancelled.
+     *
+     * @param specs    documents to render
+     * @param executor executor running the rendering tasks, typically a fixed pool sized to the cores
+     * @return PDF bytes, in the same order as {@code specs}
+     * @throws PrinterException when any document fails to render
+     */
+    public static List<byte[]> renderBatch(List<DocumentSpec> specs, Executor executor) throws PrinterException {
+        if (specs == null) {
+            throw new IllegalArgumentException("specs cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+        for (DocumentSpec spec : specs) {
+            if (spec == null) {
+                throw new IllegalArgumentException("specs cannot contain null");
+            }
+        }
+
+        List<CompletableFuture<byte[]>> futures = new ArrayList<>(specs.size());
+        for (DocumentSpec spec : specs) {
+            futures.add(renderAsync(spec, executor));
+        }
+
+        List<byte[]> documents = new ArrayList<>(futures.size());
+        for (CompletableFuture<byte[]> future : futures) {
+            try {
+                documents.add(future.join());
+            } catch (CompletionException | CancellationException e) {
+                for (CompletableFuture<byte[]> pending : futures) {
+                    pending.cancel(false);
+                }
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof PrinterException) {
+                    throw (PrinterException) cause;
+                }
+                throw new PrinterException("Failed to render document", cause);
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Renders a batch of documents concurrently on the common fork-join pool.
+     *
+     * @param specs documents to render
+     * @return PDF bytes, in the same order as {@code specs}
+     * @throws PrinterException when any document fails to render
+     * @see #renderBatch(List, Executor)
+     */
+    public static List<byte[]> renderBatch(List<DocumentSpec> specs) throws PrinterException {
+        return renderBatch(specs, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Renders a document on the supplied executor without blocking the caller. The returned future
+     * completes with the PDF bytes, or exceptionally with the {@link PrinterException} that stopped
+     * the rendering.
+     * <p>
+     * Cancellation is cooperative: cancelling the future before the task starts skips it, and
+     * cancelling it while the document renders abandons the document at its next page or before it
+     * is saved, releasing its buffers. Any executor works, including one starting a virtual thread
+     * per task; the locks held while rendering guard short in-memory updates and never block, so
+     * virtual threads are not pinned while waiting for I/O.
+     *
+     * @param spec     document to render
+     * @param executor executor running the rendering task
+     * @return future completing with the PDF bytes
+     */
+    public static CompletableFuture<byte[]> renderAsync(DocumentSpec spec, Executor executor) {
+        if (spec == null) {
+            throw new IllegalArgumentException("spec cannot be null");
+        }
+        return submitCancellable(executor, spec::render);
+    }
+
+    /**
+     * Renders a document on the common fork-join pool without blocking the caller.
+     *
+     * @param spec document to render
+     * @return future completing with the PDF bytes
+     * @see #renderAsync(DocumentSpec, Executor)
+     */
+    public static CompletableFuture<byte[]> renderAsync(DocumentSpec spec) {
+        return renderAsync(spec, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Renders a document on the supplied executor and streams it into the sink, without keeping the
+     * bytes in memory. The sink is flushed but left open; it is written from the executor's thread.
+     * Cancellation follows {@link #renderAsync(DocumentSpec, Executor)}, so once the document starts
+     * being saved the sink may already hold part of it.
+     *
+     * @param spec     document to render
+     * @param out      destination stream
+     * @param executor executor running the rendering task
+     * @return future completing once the whole document has been written
+     */
+    public static CompletableFuture<Void> renderAsync(DocumentSpec spec, OutputStream out, Executor executor) {
+        if (spec == null) {
+            throw new IllegalArgumentException("spec cannot be null");
+        }
+        if (out == null) {
+            throw new IllegalArgumentException("out cannot be null");
+        }
+        return submitCancellable(executor, cancelled -> {
+            spec.renderTo(out, cancelled);
+            return null;
+        });
+    }
+
+    private static <T> CompletableFuture<T> submitCancellable(Executor executor, Function<BooleanSupplier, T> task) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    future.complete(task.apply(future::isCancelled));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(new PrinterException("Rendering task was rejected", e));
+        }
+        return future;
+    }
+
     /**
      * Prints a cut signal, typically used to indicate receipt boundaries.
      *
@@ -380,6 +807,13 @@ public class PDFQuill {
         private Float marginRight;
         private Float marginTop;
         private Float marginBottom;
+        private ImageCache imageCache;
+        private BarcodeRenderMode barcodeRenderMode = BarcodeRenderMode.VECTOR;
+        private BarcodeCache barcodeCache;
+        private Integer printerDpi;
+        private CompressionProfile compressionProfile = CompressionProfile.BALANCED;
+        private boolean compactOutput;
+        private MemoryUsageSetting memoryUsage;
 
         /**
          * Sets the paper type to be used by the generated document.
@@ -530,6 +964,105 @@ public class PDFQuill {
             return this;
         }
 
+        /**
+         * Sets the cache holding images registered for reuse across documents.
+         *
+         * @param imageCache cache to use; defaults to {@link ImageCache#shared()}
+         * @return this builder
+         */
+        public Builder withImageCache(ImageCache imageCache) {
+            this.imageCache = imageCache;
+            return this;
+        }
+
+        /**
+         * Selects how barcodes are drawn.
+         *
+         * @param barcodeRenderMode rendering strategy; must not be {@code null}
+         * @return this builder
+         */
+        public Builder withBarcodeRenderMode(BarcodeRenderMode barcodeRenderMode) {
+            if (barcodeRenderMode == null) {
+                throw new IllegalArgumentException("barcodeRenderMode cannot be null");
+            }
+            this.barcodeRenderMode = barcodeRenderMode;
+            return this;
+        }
+
+        /**
+         * Sets the cache holding encoded barcodes for reuse across documents.
+         *
+         * @param barcodeCache cache to use; defaults to {@link BarcodeCache#shared()}
+         * @return this builder
+         */
+        public Builder withBarcodeCache(BarcodeCache barcodeCache) {
+            this.barcodeCache = barcodeCache;
+            return this;
+        }
+
+        /**
+         * Sets the resolution of the target printer, used to snap barcode modules to whole dots.
+         *
+         * @param printerDpi resolution in dots per inch; must be positive
+         * @return this builder
+         */
+        public Builder withPrinterDpi(int printerDpi) {
+            if (printerDpi <= 0) {
+                throw new IllegalArgumentException("printerDpi must be positive");
+            }
+            this.printerDpi = printerDpi;
+            return this;
+        }
+
+        /**
+         * Selects how page content and encoded images are compressed.
+         *
+         * @param compressionProfile compression trade-off; must not be {@code null}
+         * @return this builder
+         */
+        public Builder withCompressionProfile(CompressionProfile compressionProfile) {
+            if (compressionProfile == null) {
+                throw new IllegalArgumentException("compressionProfile cannot be null");
+            }
+            this.compressionProfile = compressionProfile;
+            return this;
+        }
+
+        /**
+         * Saves documents in the compact PDF 1.5 layout, packing every object that is not a stream
+         * into compressed object streams indexed by a cross-reference stream. Readers older than
+         * PDF 1.5 cannot open such files.
+         *
+         * @param compactOutput whether to write object streams and a cross-reference stream
+         * @return this builder
+         */
+        public Builder compactOutput(boolean compactOutput) {
+            this.compactOutput = compactOutput;
+            return this;
+        }
+
+        /**
+         * Sets how documents buffer their streams while they are written. By default everything stays
+         * in memory until the document is saved. A setting with a main-memory cap and temp-file spill,
+         * such as {@code MemoryUsageSetting.setupMixed(64L << 20).setTempDir(dir)}, keeps long reports
+         * within a bounded heap: PDFBox spills streams past the cap to a temporary file in the
+         * setting's directory, and the content of every finished page moves to a temporary file there
+         * right away.
+         *
+         * @param memoryUsage PDFBox memory usage setting
+         * @return this builder
+         */
+        public Builder withMemoryUsageSetting(MemoryUsageSetting memoryUsage) {
+            if (memoryUsage == null) {
+                throw new IllegalArgumentException("memoryUsage cannot be null");
+            }
+            if (memoryUsage.getTempDir() != null && !memoryUsage.getTempDir().isDirectory()) {
+                throw new IllegalArgumentException("Temp directory does not exist: " + memoryUsage.getTempDir());
+            }
+            this.memoryUsage = memoryUsage;
+            return this;
+        }
+
         boolean hasCustomMargins() {
             return marginLeft != null || marginRight != null || marginTop != null || marginBottom != null;
         }
@@ -548,5 +1081,47 @@ public class PDFQuill {
         public PDFQuill build() {
             return new PDFQuill(this);
         }
+
+        /**
+         * Resolves the configuration once into a thread-safe factory handing out printers for new
+         * documents, see {@link PDFQuillFactory}.
+         *
+         * @return factory using the current configuration
+         */
+        public PDFQuillFactory buildFactory() {
+            PDFQuill prototype = build();
+            prototype.discard();
+            int capacity = Math.max(2, Runtime.getRuntime().availableProcessors());
+            WriterPool writerPool = this.memoryUsage != null
+                    ? new WriterPool(this.compressionProfile, capacity, this.memoryUsage)
+                    : new WriterPool(this.compressionProfile, capacity);
+            return new PDFQuillFactory(prototype, writerPool);
+        }
+
+        /**
+         * @return a builder holding the same configuration, unaffected by later changes to this one
+         */
+        Builder copy() {
+            Builder copy = new Builder();
+            copy.paperType = this.paperType;
+            copy.preserveSpaces = this.preserveSpaces;
+            copy.permissionSettings = this.permissionSettings;
+            copy.permissionSettingsCustomizer = this.permissionSettingsCustomizer;
+            copy.pageLayout = this.pageLayout;
+            copy.fontSettings = this.fontSettings;
+            copy.fontSettingsCustomizer = this.fontSettingsCustomizer;
+            copy.marginLeft = this.marginLeft;
+            copy.marginRight = this.marginRight;
+            copy.marginTop = this.marginTop;
+            copy.marginBottom = this.marginBottom;
+            copy.imageCache = this.imageCache;
+            copy.barcodeRenderMode = this.barcodeRenderMode;
+            copy.barcodeCache = this.barcodeCache;
+            copy.printerDpi = this.printerDpi;
+            copy.compressionProfile = this.compressionProfile;
+            copy.compactOutput = this.compactOutput;
+            copy.memoryUsage = this.memoryUsage;
+            return copy;
+        }
     }
 }
@@ -0,0 +1,37 @@
+package org.pdfquill;
+
+import org.pdfquill.writer.WriterPool;
+
+/**
+ * Thread-safe source of {@link PDFQuill} printers sharing one configuration, created by
+ * {@link PDFQuill.Builder#buildFactory()}. Layout, fonts and permissions are resolved once when the
+ * factory is built and never change afterwards, so a new printer only copies the layout and opens an
+ * empty document.
+ * <p>
+ * Printers borrow their content buffers from a pool owned by the factory and return them once their
+ * PDF has been taken ({@link PDFQuill#getPDFBytes()}, {@link PDFQuill#writeTo(java.io.OutputStream)}
+ * and friends) or {@linkplain PDFQuill#close() closed}, so the next document starts with warm buffers.
+ * Documents are also opened with a bounded scratch buffer, see {@link WriterPool}.
+ */
+public final class PDFQuillFactory {
+    private final PDFQuill prototype;
+    private final WriterPool writerPool;
+
+    PDFQuillFactory(PDFQuill prototype, WriterPool writerPool) {
+        this.prototype = prototype;
+        this.writerPool = writerPool;
+    }
+
+    /**
+     * Creates a printer writing a new, empty document with the factory's configuration.
+     *
+     * @return printer ready to print
+     */
+    public PDFQuill newPrinter() {
+        return this.prototype.newDocument(this.writerPool);
+    }
+
+    WriterPool getWriterPool() {
+        return this.writerPool;
+    }
+}
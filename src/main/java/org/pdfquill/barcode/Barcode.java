@@ -0,0 +1,176 @@
+package org.pdfquill.barcode;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import org.pdfquill.exceptions.PrinterException;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Encoded barcode symbol, kept as the rectangles covering its dark modules. Horizontal runs of dark
+ * cells are merged, and runs repeated on consecutive rows are merged vertically, so a 1D barcode is
+ * one rectangle per bar and a QR Code a few hundred at most. Instances are immutable.
+ */
+public final class Barcode {
+    private final BarcodeType barcodeType;
+    private final int width;
+    private final int height;
+    private final int[] rectangles;
+
+    private Barcode(BarcodeType barcodeType, int width, int height, int[] rectangles) {
+        this.barcodeType = barcodeType;
+        this.width = width;
+        this.height = height;
+        this.rectangles = rectangles;
+    }
+
+    /**
+     * Encodes a payload. Passing {@code 0} for both dimensions keeps one matrix cell per module.
+     *
+     * @param code        payload to encode
+     * @param barcodeType barcode symbology
+     * @param width       requested matrix width (ZXing rendering space)
+     * @param height      requested matrix height (ZXing rendering space)
+     * @return encoded symbol
+     * @throws PrinterException when barcode generation fails
+     */
+    public static Barcode encode(String code, BarcodeType barcodeType, int width, int height) throws PrinterException {
+        return encode(code, barcodeType, width, height, BarcodeUtils.defaultHints());
+    }
+
+    /**
+     * Encodes a payload using explicit ZXing hints.
+     *
+     * @param code        payload to encode
+     * @param barcodeType barcode symbology
+     * @param width       requested matrix width (ZXing rendering space)
+     * @param height      requested matrix height (ZXing rendering space)
+     * @param hints       ZXing encoding hints
+     * @return encoded symbol
+     * @throws PrinterException when barcode generation fails
+     */
+    public static Barcode encode(String code, BarcodeType barcodeType, int width, int height,
+                                 Map<EncodeHintType, ?> hints) throws PrinterException {
+        try {
+            return fromMatrix(barcodeType, BarcodeUtils.encode(code, barcodeType, width, height, hints));
+        } catch (Exception e) {
+            throw new PrinterException("Failed to encode barcode", e);
+        }
+    }
+
+    static Barcode fromMatrix(BarcodeType barcodeType, BitMatrix matrix) {
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+
+        int[] rectangles = new int[64];
+        int count = 0;
+        // open[x] holds the index + 1 of the rectangle whose run starts at x on the previous row
+        int[] open = new int[width + 1];
+        int[] nextOpen = new int[width + 1];
+
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int start = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                int runWidth = x - start;
+
+                int candidate = open[start] - 1;
+                if (candidate >= 0 && rectangles[candidate * 4 + 2] == runWidth) {
+                    rectangles[candidate * 4 + 3]++;
+                    nextOpen[start] = candidate + 1;
+                    continue;
+                }
+
+                if ((count + 1) * 4 > rectangles.length) {
+                    int[] grown = new int[rectangles.length * 2];
+                    System.arraycopy(rectangles, 0, grown, 0, count * 4);
+                    rectangles = grown;
+                }
+                rectangles[count * 4] = start;
+                rectangles[count * 4 + 1] = y;
+                rectangles[count * 4 + 2] = runWidth;
+                rectangles[count * 4 + 3] = 1;
+                count++;
+                nextOpen[start] = count;
+            }
+
+            int[] swap = open;
+            open = nextOpen;
+            nextOpen = swap;
+            Arrays.fill(nextOpen, 0);
+        }
+
+        int[] trimmed = new int[count * 4];
+        System.arraycopy(rectangles, 0, trimmed, 0, trimmed.length);
+        return new Barcode(barcodeType, width, height, trimmed);
+    }
+
+    /**
+     * @return symbology of the encoded payload
+     */
+    public BarcodeType getBarcodeType() {
+        return this.barcodeType;
+    }
+
+    /**
+     * @return matrix width in cells
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return matrix height in cells
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return number of rectangles needed to paint the dark modules
+     */
+    public int getRectangleCount() {
+        return this.rectangles.length / 4;
+    }
+
+    /**
+     * Returns the rectangles as consecutive {@code x, y, width, height} quadruples in matrix cells,
+     * with {@code y} counted from the top row.
+     *
+     * @return a copy of the rectangle coordinates
+     */
+    public int[] getRectangles() {
+        return this.rectangles.clone();
+    }
+
+    /**
+     * Packs the symbol into 1-bit rows, most significant bit first, with {@code 1} marking a dark
+     * cell. Each row starts on a byte boundary, i.e. rows are {@code (getWidth() + 7) / 8} bytes long.
+     *
+     * @return packed rows, suitable for a 1 bit-per-component image
+     */
+    public byte[] toPackedRows() {
+        int stride = (this.width + 7) / 8;
+        byte[] rows = new byte[stride * this.height];
+        for (int i = 0; i < this.rectangles.length; i += 4) {
+            int left = this.rectangles[i];
+            int right = left + this.rectangles[i + 2];
+            int bottom = this.rectangles[i + 1] + this.rectangles[i + 3];
+            for (int y = this.rectangles[i + 1]; y < bottom; y++) {
+                int offset = y * stride;
+                for (int x = left; x < right; x++) {
+                    rows[offset + (x >> 3)] |= (byte) (0x80 >>> (x & 7));
+                }
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,277 @@
+package org.pdfquill.barcode;
+
+import com.google.zxing.EncodeHintType;
+import org.pdfquill.exceptions.PrinterException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Thread-safe cache of encoded {@link Barcode}s keyed by payload, symbology, requested size and
+ * hints, shared across documents so reprints and duplicate copies skip ZXing entirely. The number of
+ * entries is bounded; the least recently used barcodes are evicted first. Encoding happens outside
+ * the lock, so a slow payload never blocks lookups from other threads.
+ */
+public final class BarcodeCache {
+    /**
+     * Default number of barcodes kept by the shared cache.
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 4096;
+
+    private static final BarcodeCache SHARED = new BarcodeCache(DEFAULT_MAX_ENTRIES);
+
+    private final int maxEntries;
+    private final LinkedHashMap<BarcodeKey, Barcode> barcodes = new LinkedHashMap<>(16, 0.75f, true);
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a cache holding at most the supplied number of barcodes.
+     *
+     * @param maxEntries entry limit; must be positive
+     */
+    public BarcodeCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @return JVM-wide cache used by printers that were not given one explicitly
+     */
+    public static BarcodeCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns the cached barcode for the payload, encoding it with the
+     * {@link BarcodeUtils#defaultHints() default hints} on a miss.
+     *
+     * @param code        payload to encode
+     * @param barcodeType barcode symbology
+     * @param width       requested matrix width (ZXing rendering space)
+     * @param height      requested matrix height (ZXing rendering space)
+     * @return encoded symbol
+     * @throws PrinterException when barcode generation fails
+     */
+    public Barcode get(String code, BarcodeType barcodeType, int width, int height) throws PrinterException {
+        return get(code, barcodeType, width, height, BarcodeUtils.defaultHints());
+    }
+
+    /**
+     * Returns the cached barcode for the payload and hints, encoding it on a miss.
+     *
+     * @param code        payload to encode
+     * @param barcodeType barcode symbology
+     * @param width       requested matrix width (ZXing rendering space)
+     * @param height      requested matrix height (ZXing rendering space)
+     * @param hints       ZXing encoding hints, part of the cache key
+     * @return encoded symbol
+     * @throws PrinterException when barcode generation fails
+     */
+    public Barcode get(String code, BarcodeType barcodeType, int width, int height,
+                       Map<EncodeHintType, ?> hints) throws PrinterException {
+        if (code == null) {
+            throw new IllegalArgumentException("code cannot be null");
+        }
+
+        BarcodeKey key = new BarcodeKey(code, barcodeType, width, height, hints);
+        synchronized (this) {
+            Barcode cached = this.barcodes.get(key);
+            if (cached != null) {
+                this.hits++;
+                return cached;
+            }
+            this.misses++;
+        }
+
+        Barcode barcode = Barcode.encode(code, barcodeType, width, height, key.hints);
+        synchronized (this) {
+            // another thread may have encoded the same payload meanwhile; keep the first instance
+            Barcode raced = this.barcodes.get(key);
+            if (raced != null) {
+                return raced;
+            }
+            this.barcodes.put(key, barcode);
+            evictOverflow();
+        }
+        return barcode;
+    }
+
+    /**
+     * Encodes a batch of barcodes on the supplied executor, one task per request, and returns them in
+     * request order. Payloads already cached are returned without encoding, and every new barcode is
+     * added to the cache, so the returned handles can be printed straight away.
+     *
+     * @param requests payloads to encode
+     * @param executor executor running the encoding tasks, e.g. {@link ForkJoinPool#commonPool()}
+     * @return encoded barcodes, in the same order as {@code requests}
+     * @throws PrinterException when any barcode fails to encode, or the executor rejects a task; the
+     *                          tasks that have not started yet are then skipped
+     */
+    public List<Barcode> getAll(List<BarcodeRequest> requests, Executor executor) throws PrinterException {
+        if (requests == null) {
+            throw new IllegalArgumentException("requests cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("executor cannot be null");
+        }
+
+        List<CompletableFuture<Barcode>> futures = new ArrayList<>(requests.size());
+        try {
+            for (BarcodeRequest request : requests) {
+                futures.add(CompletableFuture.supplyAsync(
+                        () -> get(request.getCode(), request.getBarcodeType(), 0, 0), executor));
+            }
+        } catch (RejectedExecutionException e) {
+            cancelAll(futures);
+            throw new PrinterException("Barcode encoding task was rejected", e);
+        }
+
+        List<Barcode> barcodes = new ArrayList<>(futures.size());
+        for (CompletableFuture<Barcode> future : futures) {
+            try {
+                barcodes.add(future.join());
+            } catch (CompletionException | CancellationException e) {
+                cancelAll(futures);
+                Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                if (cause instanceof PrinterException) {
+                    throw (PrinterException) cause;
+                }
+                throw new PrinterException("Failed to encode barcode", cause);
+            }
+        }
+        return barcodes;
+    }
+
+    /**
+     * Skips the encoding tasks that have not started yet once the batch has failed.
+     */
+    private static void cancelAll(List<CompletableFuture<Barcode>> futures) {
+        for (CompletableFuture<Barcode> future : futures) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Encodes a batch of barcodes on the common fork-join pool.
+     *
+     * @param requests payloads to encode
+     * @return encoded barcodes, in the same order as {@code requests}
+     * @throws PrinterException when any barcode fails to encode
+     * @see #getAll(List, Executor)
+     */
+    public List<Barcode> getAll(List<BarcodeRequest> requests) throws PrinterException {
+        return getAll(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Removes every cached barcode and resets the statistics.
+     */
+    public synchronized void clear() {
+        this.barcodes.clear();
+        this.hits = 0;
+        this.misses = 0;
+    }
+
+    /**
+     * @return number of barcodes currently cached
+     */
+    public synchronized int size() {
+        return this.barcodes.size();
+    }
+
+    /**
+     * @return configured entry limit
+     */
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    /**
+     * @return number of lookups served from the cache
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return number of lookups that had to encode the payload
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * @return share of lookups served from the cache, between {@code 0} and {@code 1}
+     */
+    public synchronized double getHitRate() {
+        long lookups = this.hits + this.misses;
+        return lookups == 0 ? 0d : (double) this.hits / lookups;
+    }
+
+    private void evictOverflow() {
+        Iterator<BarcodeKey> iterator = this.barcodes.keySet().iterator();
+        while (this.barcodes.size() > this.maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static final class BarcodeKey {
+        private final String code;
+        private final BarcodeType barcodeType;
+        private final int width;
+        private final int height;
+        private final Map<EncodeHintType, Object> hints;
+        private final int hash;
+
+        private BarcodeKey(String code, BarcodeType barcodeType, int width, int height, Map<EncodeHintType, ?> hints) {
+            this.code = code;
+            this.barcodeType = barcodeType;
+            this.width = width;
+            this.height = height;
+            Map<EncodeHintType, Object> copy = new EnumMap<>(EncodeHintType.class);
+            if (hints != null) {
+                copy.putAll(hints);
+            }
+            this.hints = Collections.unmodifiableMap(copy);
+
+            int result = code.hashCode();
+            result = 31 * result + (barcodeType != null ? barcodeType.hashCode() : 0);
+            result = 31 * result + width;
+            result = 31 * result + height;
+            this.hash = 31 * result + this.hints.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof BarcodeKey)) {
+                return false;
+            }
+            BarcodeKey that = (BarcodeKey) o;
+            return width == that.width && height == that.height && barcodeType == that.barcodeType
+                    && code.equals(that.code) && hints.equals(that.hints);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.pdfquill.barcode;
+
+/**
+ * Strategies for drawing barcodes into the page.
+ */
+public enum BarcodeRenderMode {
+    /**
+     * Draws the dark modules as filled rectangles in the page content stream; compact and sharp at any
+     * printer resolution.
+     */
+    VECTOR,
+    /**
+     * Embeds the symbol as a 1 bit-per-component image XObject, one pixel per matrix cell, scaled in
+     * the page.
+     */
+    RASTER
+}
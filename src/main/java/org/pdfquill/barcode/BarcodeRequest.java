@@ -0,0 +1,37 @@
+package org.pdfquill.barcode;
+
+/**
+ * Payload and symbology of a barcode to encode ahead of printing, see
+ * {@link BarcodeCache#getAll(java.util.List, java.util.concurrent.Executor)}. Requests are encoded
+ * with one matrix cell per module.
+ */
+public final class BarcodeRequest {
+    private final String code;
+    private final BarcodeType barcodeType;
+
+    /**
+     * @param code        payload to encode; must not be {@code null}
+     * @param barcodeType barcode symbology
+     */
+    public BarcodeRequest(String code, BarcodeType barcodeType) {
+        if (code == null) {
+            throw new IllegalArgumentException("code cannot be null");
+        }
+        this.code = code;
+        this.barcodeType = barcodeType;
+    }
+
+    /**
+     * @return payload to encode
+     */
+    public String getCode() {
+        return this.code;
+    }
+
+    /**
+     * @return barcode symbology
+     */
+    public BarcodeType getBarcodeType() {
+        return this.barcodeType;
+    }
+}
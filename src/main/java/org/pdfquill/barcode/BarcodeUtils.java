@@ -1,6 +1,15 @@
 package org.pdfquill.barcode;
 
 import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.pdfquill.measurements.MeasurementUtils;
+
+import java.util.EnumMap;
+import java.util.Map;
 
 /**
  * Helper methods for converting {@link BarcodeType} values into ZXing artefacts.
@@ -54,4 +63,67 @@ public final class BarcodeUtils {
                 throw new IllegalStateException("Unsupported barcode type: " + barcodeType);
         }
     }
+
+    /**
+     * Computes the largest whole number of printer dots per module that keeps the symbol within the
+     * supplied width, so every module maps onto the same number of device pixels. Never returns less
+     * than one dot, even when the symbol is wider than the available space.
+     *
+     * @param modules  number of modules across the symbol
+     * @param maxWidth available width in points
+     * @param dpi      printer resolution in dots per inch
+     * @return dots per module
+     */
+    public static int getDotsPerModule(int modules, float maxWidth, int dpi) {
+        if (modules <= 0) {
+            throw new IllegalArgumentException("modules must be positive");
+        }
+        return Math.max(1, MeasurementUtils.ptToDots(maxWidth, dpi) / modules);
+    }
+
+    /**
+     * Returns the hints applied when none are supplied: UTF-8, no quiet zone and the lowest QR error
+     * correction level.
+     *
+     * @return new mutable map holding the default hints
+     */
+    public static Map<EncodeHintType, Object> defaultHints() {
+        Map<EncodeHintType, Object> hintMap = new EnumMap<>(EncodeHintType.class);
+        hintMap.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+        hintMap.put(EncodeHintType.MARGIN, 0);
+        hintMap.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L);
+        return hintMap;
+    }
+
+    /**
+     * Encodes the payload into a module matrix using the {@link #defaultHints() default hints}.
+     * Passing {@code 0} for both dimensions yields one matrix cell per module.
+     *
+     * @param code        payload to encode
+     * @param barcodeType barcode symbology
+     * @param width       requested matrix width (ZXing rendering space)
+     * @param height      requested matrix height (ZXing rendering space)
+     * @return encoded matrix
+     * @throws WriterException when the payload cannot be encoded with the requested symbology
+     */
+    public static BitMatrix encode(String code, BarcodeType barcodeType, int width, int height) throws WriterException {
+        return encode(code, barcodeType, width, height, defaultHints());
+    }
+
+    /**
+     * Encodes the payload into a module matrix using explicit ZXing hints.
+     *
+     * @param code        payload to encode
+     * @param barcodeType barcode symbology
+     * @param width       requested matrix width (ZXing rendering space)
+     * @param height      requested matrix height (ZXing rendering space)
+     * @param hints       ZXing encoding hints
+     * @return encoded matrix
+     * @throws WriterException when the payload cannot be encoded with the requested symbology
+     */
+    public static BitMatrix encode(String code, BarcodeType barcodeType, int width, int height,
+                                   Map<EncodeHintType, ?> hints) throws WriterException {
+        MultiFormatWriter writer = new MultiFormatWriter();
+        return writer.encode(code, getBarcodeFormat(barcodeType), width, height, hints);
+    }
 }
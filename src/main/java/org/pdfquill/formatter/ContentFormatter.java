@@ -1,26 +1,22 @@
 package org.pdfquill.formatter;
 
-import com.google.zxing.BarcodeFormat;
-import com.google.zxing.EncodeHintType;
-import com.google.zxing.MultiFormatWriter;
-import com.google.zxing.common.BitMatrix;
-import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.pdfquill.exceptions.PrinterException;
+import org.pdfquill.barcode.Barcode;
 import org.pdfquill.barcode.BarcodeType;
-import org.pdfquill.barcode.BarcodeUtils;
+import org.pdfquill.exceptions.PrinterException;
 import org.pdfquill.settings.font.FontUtils;
 import org.pdfquill.writer.SplitParts;
 import org.pdfquill.writer.Text;
 import org.pdfquill.writer.TextBuilder;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.IndexColorModel;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.EnumMap;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Processes and formats content, like text and barcodes, preparing it for rendering.
@@ -38,51 +34,36 @@ public class ContentFormatter {
     }
 
     /**
-     * Generates a barcode (or QR Code) image.
+     * Generates a barcode (or QR Code) image. The image wraps the symbol's packed 1-bit rows, see
+     * {@link Barcode#toPackedRows()}, instead of painting them into an RGB buffer.
      *
      * @param code        payload to encode
      * @param barcodeType barcode symbology
      * @param height      desired barcode height in pixels (ZXing rendering space)
      * @param width       desired barcode width in pixels (ZXing rendering space)
-     * @return A {@link BufferedImage} containing the barcode.
+     * @return A {@link BufferedImage#TYPE_BYTE_BINARY} image containing the barcode, black on white.
+     *         Earlier versions returned a {@link BufferedImage#TYPE_INT_RGB} image.
      * @throws PrinterException when barcode generation fails
      */
     public static BufferedImage createBarcodeImage(String code, BarcodeType barcodeType, int height, int width) throws PrinterException {
-        try {
-            if (height == 0) height = 350;
-            if (width == 0) width = 350;
-
-            Map<EncodeHintType, Object> hintMap = new EnumMap<>(EncodeHintType.class);
-            hintMap.put(EncodeHintType.CHARACTER_SET, "UTF-8");
-            hintMap.put(EncodeHintType.MARGIN, 0);
-            hintMap.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.L);
-
-            MultiFormatWriter writer = new MultiFormatWriter();
-            BarcodeFormat barcodeFormat = BarcodeUtils.getBarcodeFormat(barcodeType);
-            BitMatrix byteMatrix = writer.encode(code, barcodeFormat, width, height, hintMap);
+        if (height == 0) height = 350;
+        if (width == 0) width = 350;
 
-            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
-            createGraphics(image, byteMatrix, width, height);
-            return image;
+        Barcode barcode = Barcode.encode(code, barcodeType, width, height);
+        try {
+            return createBinaryImage(barcode);
         } catch (Throwable e) {
             throw new PrinterException("Failed to create barcode image", e);
         }
     }
 
-    private static void createGraphics(BufferedImage image, BitMatrix byteMatrix, int width, int height) {
-        Graphics2D graphics = image.createGraphics();
-        graphics.setColor(Color.WHITE);
-        graphics.fillRect(0, 0, width, height);
-        graphics.setColor(Color.BLACK);
-
-        for (int i = 0; i < width; i++) {
-            for (int j = 0; j < height; j++) {
-                if (byteMatrix.get(i, j)) {
-                    graphics.fillRect(i, j, 1, 1);
-                }
-            }
-        }
-        graphics.dispose();
+    private static BufferedImage createBinaryImage(Barcode barcode) {
+        byte[] rows = barcode.toPackedRows();
+        // a set bit marks a dark module
+        IndexColorModel colors = new IndexColorModel(1, 2, new byte[]{-1, 0}, new byte[]{-1, 0}, new byte[]{-1, 0});
+        WritableRaster raster = Raster.createPackedRaster(new DataBufferByte(rows, rows.length),
+                barcode.getWidth(), barcode.getHeight(), 1, null);
+        return new BufferedImage(colors, raster, false, null);
     }
 
     private static float getTextWidth(String text, PDType1Font font, int fontSize) throws IOException {
@@ -126,7 +107,7 @@ public class ContentFormatter {
         final int n = text.length();
         float[] widths = new float[n];
         for (int i = 0; i < n; i++) {
-            widths[i] = getTextWidth(text.substring(i, i + 1),  font, fontSize);
+            widths[i] = FontUtils.getCharWidth(text.charAt(i), font, fontSize);
         }
 
         float[] prefix = new float[n + 1];
@@ -187,7 +168,7 @@ public class ContentFormatter {
         float width = 0f;
         int lastFitting = 0;
         for (int i = 0; i < text.length(); i++) {
-            float charWidth = FontUtils.getTextWidth(text.substring(i, i + 1), font, fontSize);
+            float charWidth = FontUtils.getCharWidth(text.charAt(i), font, fontSize);
             if (width + charWidth > maxWidth) {
                 break;
             }
@@ -0,0 +1,175 @@
+package org.pdfquill.image;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document-independent copy of a COS object graph. Streams keep their encoded bytes, so restoring a
+ * snapshot into another document is a plain copy with no decoding or re-compression. Immutable
+ * values (names, numbers, booleans) are shared; everything mutable is rebuilt on every restore.
+ */
+final class CosSnapshot {
+    private final Object root;
+    private final int encodedSize;
+
+    private CosSnapshot(Object root, int encodedSize) {
+        this.root = root;
+        this.encodedSize = encodedSize;
+    }
+
+    /**
+     * Captures the supplied object and everything it references.
+     *
+     * @param base object to copy
+     * @return detached snapshot
+     * @throws IOException when a stream cannot be read
+     */
+    static CosSnapshot capture(COSBase base) throws IOException {
+        int[] size = new int[1];
+        Object root = captureValue(base, size);
+        return new CosSnapshot(root, size[0]);
+    }
+
+    /**
+     * @return total number of encoded stream bytes held by the snapshot
+     */
+    int getEncodedSize() {
+        return this.encodedSize;
+    }
+
+    /**
+     * Rebuilds the object graph inside the supplied document.
+     *
+     * @param document target document owning the new streams
+     * @return freshly created COS object
+     * @throws IOException when a stream cannot be written
+     */
+    COSBase restore(PDDocument document) throws IOException {
+        return restoreValue(this.root, document);
+    }
+
+    private static Object captureValue(COSBase base, int[] size) throws IOException {
+        if (base instanceof COSObject) {
+            return captureValue(((COSObject) base).getObject(), size);
+        }
+        if (base instanceof COSStream) {
+            COSStream stream = (COSStream) base;
+            byte[] data;
+            try (InputStream in = stream.createRawInputStream()) {
+                data = IOUtils.toByteArray(in);
+            }
+            size[0] += data.length;
+            return new StreamValue(captureEntries(stream, size), data);
+        }
+        if (base instanceof COSDictionary) {
+            return new DictionaryValue(captureEntries((COSDictionary) base, size));
+        }
+        if (base instanceof COSArray) {
+            COSArray array = (COSArray) base;
+            List<Object> items = new ArrayList<>(array.size());
+            for (int i = 0; i < array.size(); i++) {
+                items.add(captureValue(array.get(i), size));
+            }
+            return new ArrayValue(items);
+        }
+        if (base instanceof COSString) {
+            return new StringValue(((COSString) base).getBytes().clone());
+        }
+        return base;
+    }
+
+    private static Map<COSName, Object> captureEntries(COSDictionary dictionary, int[] size) throws IOException {
+        Map<COSName, Object> entries = new LinkedHashMap<>();
+        for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet()) {
+            if (COSName.LENGTH.equals(entry.getKey())) {
+                continue;
+            }
+            entries.put(entry.getKey(), captureValue(entry.getValue(), size));
+        }
+        return entries;
+    }
+
+    private static COSBase restoreValue(Object value, PDDocument document) throws IOException {
+        if (value instanceof StreamValue) {
+            StreamValue streamValue = (StreamValue) value;
+            COSStream stream = document.getDocument().createCOSStream();
+            restoreEntries(streamValue.entries, stream, document);
+            try (OutputStream out = stream.createRawOutputStream()) {
+                out.write(streamValue.data);
+            }
+            return stream;
+        }
+        if (value instanceof DictionaryValue) {
+            COSDictionary dictionary = new COSDictionary();
+            restoreEntries(((DictionaryValue) value).entries, dictionary, document);
+            return dictionary;
+        }
+        if (value instanceof ArrayValue) {
+            COSArray array = new COSArray();
+            for (Object item : ((ArrayValue) value).items) {
+                array.add(restoreValue(item, document));
+            }
+            return array;
+        }
+        if (value instanceof StringValue) {
+            return new COSString(((StringValue) value).bytes.clone());
+        }
+        return (COSBase) value;
+    }
+
+    private static void restoreEntries(Map<COSName, Object> entries, COSDictionary target, PDDocument document)
+            throws IOException {
+        for (Map.Entry<COSName, Object> entry : entries.entrySet()) {
+            target.setItem(entry.getKey(), restoreValue(entry.getValue(), document));
+        }
+    }
+
+    private static final class StreamValue {
+        private final Map<COSName, Object> entries;
+        private final byte[] data;
+
+        private StreamValue(Map<COSName, Object> entries, byte[] data) {
+            this.entries = entries;
+            this.data = data;
+        }
+    }
+
+    private static final class DictionaryValue {
+        private final Map<COSName, Object> entries;
+
+        private DictionaryValue(Map<COSName, Object> entries) {
+            this.entries = entries;
+        }
+    }
+
+    private static final class ArrayValue {
+        private final List<Object> items;
+
+        private ArrayValue(List<Object> items) {
+            this.items = items;
+        }
+    }
+
+    private static final class StringValue {
+        private final byte[] bytes;
+
+        private StringValue(byte[] bytes) {
+            this.bytes = bytes;
+        }
+    }
+}
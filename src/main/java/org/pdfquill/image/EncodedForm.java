@@ -0,0 +1,78 @@
+package org.pdfquill.image;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Immutable, document-independent Form XObject: a content stream together with the fonts and images
+ * it draws. Like {@link EncodedImage}, embedding it copies the compressed bytes as they are, so a
+ * block of content laid out once can be stamped into any number of documents.
+ */
+public final class EncodedForm {
+    private final CosSnapshot snapshot;
+
+    private EncodedForm(CosSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    /**
+     * Detaches the content of a finished page as a form whose bounding box is the page's media box.
+     *
+     * @param page page holding a single content stream
+     * @return encoded form drawing the page content in page coordinates
+     * @throws IOException when the content stream cannot be read
+     */
+    public static EncodedForm capture(PDPage page) throws IOException {
+        COSStream contents = (COSStream) page.getCOSObject().getDictionaryObject(COSName.CONTENTS);
+        COSStream stream = new COSStream();
+        try {
+            for (COSName key : contents.keySet()) {
+                stream.setItem(key, contents.getItem(key));
+            }
+            try (InputStream in = contents.createRawInputStream();
+                 OutputStream out = stream.createRawOutputStream()) {
+                IOUtils.copy(in, out);
+            }
+
+            PDFormXObject form = new PDFormXObject(stream);
+            PDRectangle mediaBox = page.getMediaBox();
+            form.setBBox(new PDRectangle(mediaBox.getLowerLeftX(), mediaBox.getLowerLeftY(),
+                    mediaBox.getWidth(), mediaBox.getHeight()));
+            PDResources resources = page.getResources();
+            if (resources != null) {
+                form.setResources(resources);
+            }
+            return new EncodedForm(CosSnapshot.capture(stream));
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Creates a form in the supplied document backed by a copy of the encoded bytes.
+     *
+     * @param document target document
+     * @return new form ready to draw
+     * @throws IOException when the stream cannot be written
+     */
+    public PDFormXObject embed(PDDocument document) throws IOException {
+        return new PDFormXObject((COSStream) this.snapshot.restore(document));
+    }
+
+    /**
+     * @return number of compressed bytes held, including the images drawn by the form
+     */
+    public int getEncodedSize() {
+        return this.snapshot.getEncodedSize();
+    }
+}
@@ -0,0 +1,98 @@
+package org.pdfquill.image;
+
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Immutable, document-independent image XObject: the compressed stream (and its soft mask, if any)
+ * plus the dimensions needed to place it. Embedding it into a document copies the encoded bytes as
+ * they are, so an image encoded once can be reused by any number of documents and threads.
+ */
+public final class EncodedImage {
+    private final CosSnapshot snapshot;
+    private final int width;
+    private final int height;
+
+    private EncodedImage(CosSnapshot snapshot, int width, int height) {
+        this.snapshot = snapshot;
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Encodes the supplied image file once. JPEG and PNG data are passed through without decoding, see
+     * {@link ImageFactory}.
+     *
+     * @param imageBytes image file contents
+     * @return encoded image
+     * @throws IOException when the image cannot be read or encoded
+     */
+    public static EncodedImage encode(byte[] imageBytes) throws IOException {
+        try (PDDocument scratch = new PDDocument()) {
+            return capture(ImageFactory.createFromBytes(scratch, imageBytes));
+        }
+    }
+
+    /**
+     * Compresses the supplied image once.
+     *
+     * @param image image to encode
+     * @return encoded image
+     * @throws IOException when the image cannot be encoded
+     */
+    public static EncodedImage encode(BufferedImage image) throws IOException {
+        try (PDDocument scratch = new PDDocument()) {
+            return capture(LosslessFactory.createFromImage(scratch, image));
+        }
+    }
+
+    /**
+     * Detaches an existing XObject from its document.
+     *
+     * @param image XObject to copy
+     * @return encoded image holding the same stream bytes
+     * @throws IOException when the stream cannot be read
+     */
+    public static EncodedImage capture(PDImageXObject image) throws IOException {
+        return new EncodedImage(CosSnapshot.capture(image.getCOSObject()), image.getWidth(), image.getHeight());
+    }
+
+    /**
+     * Creates an XObject in the supplied document backed by a copy of the encoded bytes.
+     *
+     * @param document target document
+     * @return new XObject ready to draw
+     * @throws IOException when the stream cannot be written
+     */
+    public PDImageXObject embed(PDDocument document) throws IOException {
+        COSStream stream = (COSStream) this.snapshot.restore(document);
+        return new PDImageXObject(new PDStream(stream), null);
+    }
+
+    /**
+     * @return image width in pixels
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * @return image height in pixels
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return number of compressed bytes held, used to bound caches
+     */
+    public int getEncodedSize() {
+        return this.snapshot.getEncodedSize();
+    }
+}
@@ -0,0 +1,138 @@
+package org.pdfquill.image;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Thread-safe cache of {@link EncodedImage}s registered under an id, shared across documents so a
+ * logo printed on thousands of receipts is decoded and compressed only once. Memory is bounded by
+ * the total number of encoded bytes; the least recently used images are evicted first, and an image
+ * larger than the whole budget is not cached at all.
+ */
+public final class ImageCache {
+    /**
+     * Default memory budget of the shared cache, in encoded bytes.
+     */
+    public static final long DEFAULT_MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final ImageCache SHARED = new ImageCache(DEFAULT_MAX_BYTES);
+
+    private final long maxBytes;
+    private final LinkedHashMap<String, EncodedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+    private long sizeBytes;
+
+    /**
+     * Creates a cache bounded to the supplied number of encoded bytes.
+     *
+     * @param maxBytes memory budget; must be positive
+     */
+    public ImageCache(long maxBytes) {
+        if (maxBytes <= 0) {
+            throw new IllegalArgumentException("maxBytes must be positive");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return JVM-wide cache used by printers that were not given one explicitly
+     */
+    public static ImageCache shared() {
+        return SHARED;
+    }
+
+    /**
+     * Encodes the supplied image file and stores it under {@code id}, replacing any previous entry.
+     * Images larger than the budget are returned without being cached.
+     *
+     * @param id         identifier used to print the image later
+     * @param imageBytes image file contents
+     * @return the encoded image
+     * @throws IOException when the image cannot be read or encoded
+     */
+    public EncodedImage register(String id, byte[] imageBytes) throws IOException {
+        return put(id, EncodedImage.encode(imageBytes));
+    }
+
+    /**
+     * Stores an already encoded image under {@code id}, replacing any previous entry. An image larger
+     * than the budget is not stored, since it could only be kept by pinning it above the limit, and
+     * any previous entry under {@code id} is removed.
+     *
+     * @param id    identifier used to print the image later
+     * @param image encoded image
+     * @return the supplied image
+     */
+    public synchronized EncodedImage put(String id, EncodedImage image) {
+        if (id == null) {
+            throw new IllegalArgumentException("id cannot be null");
+        }
+        if (image == null) {
+            throw new IllegalArgumentException("image cannot be null");
+        }
+
+        if (image.getEncodedSize() > this.maxBytes) {
+            remove(id);
+            return image;
+        }
+
+        EncodedImage previous = this.images.put(id, image);
+        if (previous != null) {
+            this.sizeBytes -= previous.getEncodedSize();
+        }
+        this.sizeBytes += image.getEncodedSize();
+        evictOverflow();
+        return image;
+    }
+
+    /**
+     * @param id identifier supplied at registration
+     * @return the registered image, or {@code null} when unknown or evicted
+     */
+    public synchronized EncodedImage get(String id) {
+        return this.images.get(id);
+    }
+
+    /**
+     * Removes the image registered under {@code id}.
+     *
+     * @param id identifier supplied at registration
+     */
+    public synchronized void remove(String id) {
+        EncodedImage removed = this.images.remove(id);
+        if (removed != null) {
+            this.sizeBytes -= removed.getEncodedSize();
+        }
+    }
+
+    /**
+     * @return number of images currently cached
+     */
+    public synchronized int size() {
+        return this.images.size();
+    }
+
+    /**
+     * @return encoded bytes currently held
+     */
+    public synchronized long getSizeBytes() {
+        return this.sizeBytes;
+    }
+
+    /**
+     * @return configured memory budget in encoded bytes
+     */
+    public long getMaxBytes() {
+        return this.maxBytes;
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, EncodedImage>> iterator = this.images.entrySet().iterator();
+        while (this.sizeBytes > this.maxBytes && iterator.hasNext()) {
+            EncodedImage eldest = iterator.next().getValue();
+            iterator.remove();
+            this.sizeBytes -= eldest.getEncodedSize();
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.pdfquill.image;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.color.PDColorSpace;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceGray;
+import org.apache.pdfbox.pdmodel.graphics.color.PDDeviceRGB;
+import org.apache.pdfbox.pdmodel.graphics.image.JPEGFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.pdfquill.settings.CompressionProfile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Creates image XObjects from image files, passing already compressed data through whenever PDF
+ * can embed it directly: JPEG as DCTDecode and PNG as predictor-compatible FlateDecode. Only the
+ * header is read for those formats; everything else is decoded and re-encoded losslessly.
+ */
+public final class ImageFactory {
+
+    private ImageFactory() {
+        // utility class
+    }
+
+    /**
+     * Creates an XObject for the supplied image file in the given document.
+     *
+     * @param document   owner of the XObject
+     * @param imageBytes image file contents
+     * @return new XObject
+     * @throws IOException when the image cannot be read or encoded
+     */
+    public static PDImageXObject createFromBytes(PDDocument document, byte[] imageBytes) throws IOException {
+        return createFromBytes(document, imageBytes, CompressionProfile.BALANCED);
+    }
+
+    /**
+     * Creates an XObject for the supplied image file in the given document. The compression profile
+     * only applies to formats that have to be re-encoded.
+     *
+     * @param document    owner of the XObject
+     * @param imageBytes  image file contents
+     * @param compression compression applied to re-encoded images
+     * @return new XObject
+     * @throws IOException when the image cannot be read or encoded
+     */
+    public static PDImageXObject createFromBytes(PDDocument document, byte[] imageBytes,
+                                                 CompressionProfile compression) throws IOException {
+        if (imageBytes == null) {
+            throw new IllegalArgumentException("imageBytes cannot be null");
+        }
+
+        switch (ImageFormat.detect(imageBytes)) {
+            case JPEG:
+                return JPEGFactory.createFromByteArray(document, imageBytes);
+            case PNG:
+                return PDImageXObject.createFromByteArray(document, imageBytes, "image.png");
+            default:
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(imageBytes));
+                if (image == null) {
+                    throw new IOException("Unsupported image format");
+                }
+                return createFromImage(document, image, compression);
+        }
+    }
+
+    /**
+     * Encodes an image losslessly. {@link CompressionProfile#BALANCED} is PDFBox's own
+     * {@link LosslessFactory} encoding; {@link CompressionProfile#MAX} re-deflates its output at the
+     * strongest level, while {@link CompressionProfile#FAST} and {@link CompressionProfile#NONE}
+     * write plain 8-bit samples without predictors. 8-bit gray images are always written from their
+     * raster samples, at the profile's deflate level, since PDFBox would read them through the sRGB
+     * conversion of {@link BufferedImage#getRGB(int, int)} and lighten every mid-tone.
+     *
+     * @param document    owner of the XObject
+     * @param image       image to encode
+     * @param compression compression to apply
+     * @return new XObject
+     * @throws IOException when the image cannot be encoded
+     */
+    public static PDImageXObject createFromImage(PDDocument document, BufferedImage image,
+                                                 CompressionProfile compression) throws IOException {
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return encodeSamples(document, image, compression);
+        }
+        switch (compression) {
+            case BALANCED:
+                return LosslessFactory.createFromImage(document, image);
+            case MAX:
+                PDImageXObject pdImage = LosslessFactory.createFromImage(document, image);
+                recompress(pdImage.getCOSObject(), compression.getDeflateLevel());
+                COSBase mask = pdImage.getCOSObject().getDictionaryObject(COSName.SMASK);
+                if (mask instanceof COSStream) {
+                    recompress((COSStream) mask, compression.getDeflateLevel());
+                }
+                return pdImage;
+            default:
+                return encodeSamples(document, image, compression);
+        }
+    }
+
+    /**
+     * Creates a 1 bit-per-component Flate image straight from packed rows, without going through a
+     * {@link BufferedImage}. Set bits are painted black.
+     *
+     * @param document   owner of the XObject
+     * @param packedRows rows packed most significant bit first, each starting on a byte boundary
+     * @param width      image width in pixels
+     * @param height     image height in pixels
+     * @return new XObject
+     * @throws IOException when the data cannot be compressed
+     */
+    public static PDImageXObject createFromPackedBits(PDDocument document, byte[] packedRows, int width, int height)
+            throws IOException {
+        return createFromPackedBits(document, packedRows, width, height, CompressionProfile.BALANCED);
+    }
+
+    /**
+     * Creates a 1 bit-per-component image straight from packed rows, compressed as requested.
+     *
+     * @param document    owner of the XObject
+     * @param packedRows  rows packed most significant bit first, each starting on a byte boundary
+     * @param width       image width in pixels
+     * @param height      image height in pixels
+     * @param compression compression to apply
+     * @return new XObject
+     * @throws IOException when the data cannot be compressed
+     */
+    public static PDImageXObject createFromPackedBits(PDDocument document, byte[] packedRows, int width, int height,
+                                                      CompressionProfile compression) throws IOException {
+        PDImageXObject image = createImage(document, packedRows, packedRows.length, compression,
+                width, height, 1, PDDeviceGray.INSTANCE);
+        COSArray decode = new COSArray();
+        decode.add(COSInteger.ONE);
+        decode.add(COSInteger.ZERO);
+        image.setDecode(decode);
+        return image;
+    }
+
+    private static PDImageXObject encodeSamples(PDDocument document, BufferedImage image,
+                                                CompressionProfile compression) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        boolean gray = image.getType() == BufferedImage.TYPE_BYTE_GRAY;
+        boolean alpha = image.getColorModel().hasAlpha();
+
+        byte[] samples = new byte[width * height * (gray ? 1 : 3)];
+        byte[] alphas = alpha ? new byte[width * height] : null;
+        int[] row = new int[width];
+        int sample = 0;
+        int pixel = 0;
+        for (int y = 0; y < height; y++) {
+            if (gray) {
+                image.getRaster().getSamples(0, y, width, 1, 0, row);
+                for (int value : row) {
+                    samples[sample++] = (byte) value;
+                }
+                continue;
+            }
+            image.getRGB(0, y, width, 1, row, 0, width);
+            for (int argb : row) {
+                samples[sample++] = (byte) (argb >> 16);
+                samples[sample++] = (byte) (argb >> 8);
+                samples[sample++] = (byte) argb;
+                if (alphas != null) {
+                    alphas[pixel++] = (byte) (argb >>> 24);
+                }
+            }
+        }
+
+        PDImageXObject pdImage = createImage(document, samples, samples.length, compression, width, height, 8,
+                gray ? PDDeviceGray.INSTANCE : PDDeviceRGB.INSTANCE);
+        if (alphas != null) {
+            PDImageXObject mask = createImage(document, alphas, alphas.length, compression, width, height, 8,
+                    PDDeviceGray.INSTANCE);
+            pdImage.getCOSObject().setItem(COSName.SMASK, mask);
+        }
+        return pdImage;
+    }
+
+    private static PDImageXObject createImage(PDDocument document, byte[] data, int length,
+                                              CompressionProfile compression, int width, int height,
+                                              int bitsPerComponent, PDColorSpace colorSpace) throws IOException {
+        if (!compression.isCompressed()) {
+            return new PDImageXObject(document, new ByteArrayInputStream(data, 0, length), null,
+                    width, height, bitsPerComponent, colorSpace);
+        }
+        byte[] compressed = deflate(data, length, compression.getDeflateLevel());
+        return new PDImageXObject(document, new ByteArrayInputStream(compressed), COSName.FLATE_DECODE,
+                width, height, bitsPerComponent, colorSpace);
+    }
+
+    private static void recompress(COSStream stream, int level) throws IOException {
+        if (!COSName.FLATE_DECODE.equals(stream.getDictionaryObject(COSName.FILTER))) {
+            return;
+        }
+        byte[] data;
+        try (InputStream in = new InflaterInputStream(stream.createRawInputStream())) {
+            data = IOUtils.toByteArray(in);
+        }
+        byte[] compressed = deflate(data, data.length, level);
+        try (OutputStream out = stream.createRawOutputStream()) {
+            out.write(compressed);
+        }
+    }
+
+    private static byte[] deflate(byte[] data, int length, int level) throws IOException {
+        Deflater deflater = new Deflater(level);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(length / 4 + 16);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, deflater)) {
+            out.write(data, 0, length);
+        } finally {
+            deflater.end();
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,50 @@
+package org.pdfquill.image;
+
+/**
+ * Image file formats recognised from their leading magic bytes.
+ */
+public enum ImageFormat {
+    /**
+     * JPEG data, embedded as-is with the DCTDecode filter.
+     */
+    JPEG,
+    /**
+     * PNG data, whose IDAT stream is embedded with a predictor-aware FlateDecode filter when possible.
+     */
+    PNG,
+    /**
+     * Any other format, which has to be decoded and re-encoded losslessly.
+     */
+    OTHER;
+
+    private static final byte[] JPEG_MAGIC = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG_MAGIC = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    /**
+     * Detects the format of an image file from its header.
+     *
+     * @param data image file contents
+     * @return detected format, {@link #OTHER} when not recognised
+     */
+    public static ImageFormat detect(byte[] data) {
+        if (startsWith(data, JPEG_MAGIC)) {
+            return JPEG;
+        }
+        if (startsWith(data, PNG_MAGIC)) {
+            return PNG;
+        }
+        return OTHER;
+    }
+
+    private static boolean startsWith(byte[] data, byte[] magic) {
+        if (data == null || data.length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if (data[i] != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -17,4 +17,26 @@ public final class MeasurementUtils {
     public static float mmToPt(float mm) {
         return (72f * mm) / 25.4f;
     }
+
+    /**
+     * Converts PDF points to whole printer dots, rounding down.
+     *
+     * @param pt  measurement in points
+     * @param dpi printer resolution in dots per inch
+     * @return number of dots fitting in the measurement
+     */
+    public static int ptToDots(float pt, int dpi) {
+        return (int) Math.floor(pt * dpi / 72f + 1e-3f);
+    }
+
+    /**
+     * Converts printer dots to PDF points.
+     *
+     * @param dots number of dots
+     * @param dpi  printer resolution in dots per inch
+     * @return value converted to points
+     */
+    public static float dotsToPt(int dots, int dpi) {
+        return dots * 72f / dpi;
+    }
 }
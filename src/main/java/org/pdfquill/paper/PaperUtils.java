@@ -6,6 +6,15 @@ import java.util.EnumSet;
  * Utility helpers related to {@link PaperType} categorisation.
  */
 public class PaperUtils {
+    /**
+     * Resolution assumed for thermal printers, in dots per inch.
+     */
+    public static final int THERMAL_DPI = 203;
+
+    /**
+     * Resolution assumed for every other printer, in dots per inch.
+     */
+    public static final int DEFAULT_DPI = 300;
 
     private static final EnumSet<PaperType> THERMAL_PAPER_TYPES = EnumSet.of(
             PaperType.THERMAL_80MM,
@@ -54,4 +63,14 @@ public class PaperUtils {
     public static boolean isThermal(PaperType paperType) {
         return paperType != null && THERMAL_PAPER_TYPES.contains(paperType);
     }
+
+    /**
+     * Returns the printer resolution typically paired with the provided paper type.
+     *
+     * @param paperType type to inspect
+     * @return {@link #THERMAL_DPI} for thermal paper, {@link #DEFAULT_DPI} otherwise
+     */
+    public static int getDefaultDpi(PaperType paperType) {
+        return isThermal(paperType) ? THERMAL_DPI : DEFAULT_DPI;
+    }
 }
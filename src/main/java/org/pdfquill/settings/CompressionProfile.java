@@ -0,0 +1,46 @@
+package org.pdfquill.settings;
+
+import java.util.zip.Deflater;
+
+/**
+ * Trade-off between encoding time and output size applied to page content and to images encoded by
+ * the library. Image files passed through unchanged (JPEG, PNG) keep their original compression.
+ */
+public enum CompressionProfile {
+    /**
+     * Writes streams without any filter; the fastest option and the largest output.
+     */
+    NONE(Deflater.NO_COMPRESSION),
+    /**
+     * Deflates with the fastest level, without PNG predictors for images.
+     */
+    FAST(Deflater.BEST_SPEED),
+    /**
+     * Deflate's default level with PDFBox's predictor-based image encoding; the library default.
+     */
+    BALANCED(Deflater.DEFAULT_COMPRESSION),
+    /**
+     * Deflates with the strongest level, keeping PNG predictors for images.
+     */
+    MAX(Deflater.BEST_COMPRESSION);
+
+    private final int deflateLevel;
+
+    CompressionProfile(int deflateLevel) {
+        this.deflateLevel = deflateLevel;
+    }
+
+    /**
+     * @return level passed to {@link Deflater}
+     */
+    public int getDeflateLevel() {
+        return deflateLevel;
+    }
+
+    /**
+     * @return {@code false} when streams are written unfiltered
+     */
+    public boolean isCompressed() {
+        return this != NONE;
+    }
+}
@@ -18,6 +18,8 @@ public class PageLayout {
     private float lineSpacing = 1.15f;
 
     private PaperType paperType = PaperType.A4;
+    // Resolved from the paper type unless set explicitly
+    private Integer printerDpi;
 
     //Defined by margins
     private float startX;
@@ -61,6 +63,7 @@ public class PageLayout {
             this.marginBottom = other.marginBottom;
             this.fontSettings = other.fontSettings != null ? other.fontSettings.copy() : new FontSettings();
             this.paperType = other.paperType != null ? other.paperType : PaperType.A4;
+            this.printerDpi = other.printerDpi;
         }
         this.assignDependentAttrs();
     }
@@ -140,6 +143,26 @@ public class PageLayout {
         this.assignDependentAttrs();
     }
 
+    /**
+     * @return resolution of the target printer in dots per inch; defaults to
+     * {@link PaperUtils#getDefaultDpi(PaperType)} for the current paper type
+     */
+    public int getPrinterDpi() {
+        return this.printerDpi != null ? this.printerDpi : PaperUtils.getDefaultDpi(this.paperType);
+    }
+
+    /**
+     * Sets the resolution of the target printer, used to snap barcodes to whole printer dots.
+     *
+     * @param printerDpi resolution in dots per inch; must be positive
+     */
+    public void setPrinterDpi(int printerDpi) {
+        if (printerDpi <= 0) {
+            throw new IllegalArgumentException("printerDpi must be positive");
+        }
+        this.printerDpi = printerDpi;
+    }
+
     /**
      * @return {@code true} when the current paper type is thermal
      */
@@ -0,0 +1,183 @@
+package org.pdfquill.settings.font;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Glyph advance and encoding tables of a {@link PDType1Font}, built once per font. Widths are kept in
+ * font units (1/1000 em) exactly as {@link PDType1Font#getStringWidth(String)} reports them and are
+ * summed in the same order, so measurements are bit-for-bit identical to the PDFBox path without
+ * encoding a substring per character. Characters the font cannot encode fall back to PDFBox, which
+ * raises the usual {@link IllegalArgumentException}.
+ * <p>
+ * Metrics of the Standard 14 constants are shared JVM-wide. Tables of other fonts, typically loaded
+ * into a single document, are cached under weak keys and go away along with their font.
+ */
+public final class FontMetrics {
+    private static final int TABLE_SIZE = 256;
+    private static final Set<PDType1Font> STANDARD_FONTS = standardFonts();
+    private static final Map<PDType1Font, FontMetrics> STANDARD_METRICS = new ConcurrentHashMap<>();
+    // tables do not refer to their font, so the weak keys can be collected
+    private static final Map<PDType1Font, Tables> LOADED_TABLES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private final PDType1Font font;
+    private final Tables tables;
+
+    private FontMetrics(PDType1Font font, Tables tables) {
+        this.font = font;
+        this.tables = tables;
+    }
+
+    /**
+     * Returns the metrics of the supplied font, building its table on first use.
+     *
+     * @param font font to measure
+     * @return metrics sharing the font's cached tables
+     */
+    public static FontMetrics of(PDType1Font font) {
+        if (font == null) {
+            throw new IllegalArgumentException("font cannot be null");
+        }
+        if (STANDARD_FONTS.contains(font)) {
+            return STANDARD_METRICS.computeIfAbsent(font, f -> new FontMetrics(f, new Tables(f)));
+        }
+        return new FontMetrics(font, LOADED_TABLES.computeIfAbsent(font, Tables::new));
+    }
+
+    /**
+     * @param c character to measure
+     * @return advance of the character in font units (1/1000 em)
+     * @throws IOException when the font cannot be read
+     */
+    public float getRawWidth(char c) throws IOException {
+        if (c < TABLE_SIZE) {
+            float width = this.tables.widths[c];
+            if (width == width) {
+                return width;
+            }
+            return measure(c);
+        }
+        Float width = this.tables.extendedWidths.get(c);
+        if (width != null) {
+            return width;
+        }
+        float measured = measure(c);
+        this.tables.extendedWidths.put(c, measured);
+        return measured;
+    }
+
+    /**
+     * Sums the advances of {@code text[start, end)} in font units, from left to right.
+     *
+     * @param text  text to measure
+     * @param start first character, inclusive
+     * @param end   last character, exclusive
+     * @return advance of the range in font units (1/1000 em)
+     * @throws IOException when the font cannot be read
+     */
+    public float getRawWidth(CharSequence text, int start, int end) throws IOException {
+        float width = 0f;
+        for (int i = start; i < end; i++) {
+            width += getRawWidth(text.charAt(i));
+        }
+        return width;
+    }
+
+    /**
+     * Returns the single-byte code the font encoding assigns to a character, as written into a
+     * content stream string.
+     *
+     * @param c character to encode
+     * @return code between 0 and 255
+     * @throws IOException              when the font cannot be read
+     * @throws IllegalArgumentException when the font cannot encode the character
+     */
+    public int getCode(char c) throws IOException {
+        if (c < TABLE_SIZE) {
+            int code = this.tables.codes[c];
+            if (code >= 0) {
+                return code;
+            }
+            return encode(c);
+        }
+        Integer code = this.tables.extendedCodes.get(c);
+        if (code != null) {
+            return code;
+        }
+        int encoded = encode(c);
+        this.tables.extendedCodes.put(c, encoded);
+        return encoded;
+    }
+
+    /**
+     * @return the measured font
+     */
+    public PDType1Font getFont() {
+        return this.font;
+    }
+
+    private int encode(char c) throws IOException {
+        byte[] encoded;
+        synchronized (this.tables) {
+            encoded = this.font.encode(String.valueOf(c));
+        }
+        if (encoded.length != 1) {
+            throw new IllegalArgumentException("U+" + Integer.toHexString(c) + " has no single-byte code in " + this.font.getName());
+        }
+        return encoded[0] & 0xFF;
+    }
+
+    private float measure(char c) throws IOException {
+        // PDType1Font keeps unsynchronised caches
+        synchronized (this.tables) {
+            return this.font.getStringWidth(String.valueOf(c));
+        }
+    }
+
+    private static Set<PDType1Font> standardFonts() {
+        Set<PDType1Font> fonts = Collections.newSetFromMap(new IdentityHashMap<>());
+        fonts.addAll(Arrays.asList(PDType1Font.TIMES_ROMAN, PDType1Font.TIMES_BOLD, PDType1Font.TIMES_ITALIC,
+                PDType1Font.TIMES_BOLD_ITALIC, PDType1Font.HELVETICA, PDType1Font.HELVETICA_BOLD,
+                PDType1Font.HELVETICA_OBLIQUE, PDType1Font.HELVETICA_BOLD_OBLIQUE, PDType1Font.COURIER,
+                PDType1Font.COURIER_BOLD, PDType1Font.COURIER_OBLIQUE, PDType1Font.COURIER_BOLD_OBLIQUE,
+                PDType1Font.SYMBOL, PDType1Font.ZAPF_DINGBATS));
+        return fonts;
+    }
+
+    /**
+     * Tables of one font, shared by all its metrics instances; also the lock guarding the font's
+     * unsynchronised PDFBox caches.
+     */
+    private static final class Tables {
+        // Latin-1 advances and codes; NaN and -1 mark characters missing from the font encoding
+        private final float[] widths = new float[TABLE_SIZE];
+        private final int[] codes = new int[TABLE_SIZE];
+        private final Map<Character, Float> extendedWidths = new ConcurrentHashMap<>();
+        private final Map<Character, Integer> extendedCodes = new ConcurrentHashMap<>();
+
+        private Tables(PDType1Font font) {
+            Arrays.fill(this.widths, Float.NaN);
+            Arrays.fill(this.codes, -1);
+            for (int c = 0; c < TABLE_SIZE; c++) {
+                try {
+                    String text = String.valueOf((char) c);
+                    this.widths[c] = font.getStringWidth(text);
+                    byte[] encoded = font.encode(text);
+                    if (encoded.length == 1) {
+                        this.codes[c] = encoded[0] & 0xFF;
+                    }
+                } catch (IllegalArgumentException | IOException e) {
+                    // not encodable, resolved through PDFBox when requested
+                }
+            }
+        }
+    }
+}
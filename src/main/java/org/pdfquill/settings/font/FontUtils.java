@@ -6,7 +6,15 @@ import java.io.IOException;
 
 public class FontUtils {
     public static float getTextWidth(String text, PDType1Font font, int fontSize) throws IOException {
-        return font.getStringWidth(text) * fontSize / 1000f;
+        return getTextWidth(text, 0, text.length(), font, fontSize);
+    }
+
+    public static float getTextWidth(CharSequence text, int start, int end, PDType1Font font, int fontSize) throws IOException {
+        return FontMetrics.of(font).getRawWidth(text, start, end) * fontSize / 1000f;
+    }
+
+    public static float getCharWidth(char c, PDType1Font font, int fontSize) throws IOException {
+        return FontMetrics.of(font).getRawWidth(c) * fontSize / 1000f;
     }
 
     public static int lastWhitespaceBetween(String s, int from, int toInclusive) {
@@ -0,0 +1,395 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.cos.COSArray;
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSBoolean;
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSFloat;
+import org.apache.pdfbox.cos.COSInteger;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSNull;
+import org.apache.pdfbox.cos.COSObject;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.cos.COSString;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdfwriter.COSWriter;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.pdfquill.settings.CompressionProfile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Serialises a document in the compact PDF 1.5 layout, which PDFBox 2 can read but not write: every
+ * object that is not a stream is packed into compressed object streams, and the classic xref table
+ * is replaced by a compressed cross-reference stream. Only streams (page content, images) remain at
+ * the top level of the file. Documents are written in full; incremental updates, encryption and
+ * signatures are not supported.
+ */
+public final class CompactDocumentWriter {
+    private static final int OBJECTS_PER_STREAM = 200;
+    private static final byte[] HEADER_BINARY_MARKER = {'%', (byte) 0xE2, (byte) 0xE3, (byte) 0xCF, (byte) 0xD3, '\n'};
+
+    private final CompressionProfile compression;
+
+    private final Map<COSBase, Integer> objectNumbers = new IdentityHashMap<>();
+    private final List<COSBase> objects = new ArrayList<>();
+
+    /**
+     * Creates a writer deflating object and cross-reference streams with the given profile.
+     *
+     * @param compression compression applied to the object and cross-reference streams
+     */
+    public CompactDocumentWriter(CompressionProfile compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression profile cannot be null");
+        }
+        this.compression = compression;
+    }
+
+    /**
+     * Writes the document to the supplied sink. The sink is flushed but left open.
+     *
+     * @param document document to serialise
+     * @param out      destination for the PDF bytes
+     * @throws IOException when the document cannot be read or the sink cannot be written
+     */
+    public void write(PDDocument document, OutputStream out) throws IOException {
+        if (document.getDocument().isClosed()) {
+            throw new IOException("Cannot save a document which has been closed");
+        }
+        this.objectNumbers.clear();
+        this.objects.clear();
+
+        COSDictionary trailer = document.getDocument().getTrailer();
+        COSBase root = trailer.getItem(COSName.ROOT);
+        COSBase info = trailer.getItem(COSName.INFO);
+        register(root);
+        if (info != null) {
+            register(info);
+        }
+        for (int i = 0; i < this.objects.size(); i++) {
+            discover(this.objects.get(i));
+        }
+
+        CountingOutputStream output = new CountingOutputStream(out);
+        String version = document.getVersion() > 1.5f ? Float.toString(document.getVersion()) : "1.5";
+        output.write(("%PDF-" + version + "\n").getBytes(StandardCharsets.US_ASCII));
+        output.write(HEADER_BINARY_MARKER);
+
+        int objectCount = this.objects.size();
+        long[] offsets = new long[objectCount + 1];
+        int[] containers = new int[objectCount + 1];
+        int[] indexes = new int[objectCount + 1];
+
+        List<Integer> packed = new ArrayList<>();
+        for (int number = 1; number <= objectCount; number++) {
+            COSBase object = this.objects.get(number - 1);
+            if (object instanceof COSStream) {
+                offsets[number] = output.getCount();
+                writeStreamObject(output, number, (COSStream) object);
+            } else {
+                packed.add(number);
+            }
+        }
+
+        int nextNumber = objectCount + 1;
+        List<Long> objectStreamOffsets = new ArrayList<>();
+        for (int start = 0; start < packed.size(); start += OBJECTS_PER_STREAM) {
+            List<Integer> batch = packed.subList(start, Math.min(packed.size(), start + OBJECTS_PER_STREAM));
+            int streamNumber = nextNumber++;
+            for (int i = 0; i < batch.size(); i++) {
+                containers[batch.get(i)] = streamNumber;
+                indexes[batch.get(i)] = i;
+            }
+            objectStreamOffsets.add(output.getCount());
+            writeObjectStream(output, streamNumber, batch);
+        }
+
+        int xrefNumber = nextNumber;
+        long xrefOffset = output.getCount();
+        writeXrefStream(output, xrefNumber, xrefOffset, offsets, containers, indexes, objectStreamOffsets,
+                trailer, root, info);
+        output.write(("startxref\n" + xrefOffset + "\n%%EOF\n").getBytes(StandardCharsets.US_ASCII));
+        output.flush();
+    }
+
+    private void register(COSBase value) {
+        COSBase actual = value instanceof COSObject ? ((COSObject) value).getObject() : value;
+        if (actual != null && !this.objectNumbers.containsKey(actual)) {
+            this.objects.add(actual);
+            this.objectNumbers.put(actual, this.objects.size());
+        }
+    }
+
+    private void discover(COSBase object) {
+        if (object instanceof COSDictionary) {
+            for (COSBase value : ((COSDictionary) object).getValues()) {
+                discoverValue(value);
+            }
+        } else if (object instanceof COSArray) {
+            for (COSBase value : (COSArray) object) {
+                discoverValue(value);
+            }
+        }
+    }
+
+    private void discoverValue(COSBase value) {
+        if (isIndirect(value)) {
+            register(value);
+        } else {
+            discover(value);
+        }
+    }
+
+    private static boolean isIndirect(COSBase value) {
+        if (value instanceof COSObject) {
+            return ((COSObject) value).getObject() != null;
+        }
+        return value instanceof COSStream || value instanceof COSDictionary && !value.isDirect();
+    }
+
+    private void writeStreamObject(OutputStream output, int number, COSStream stream) throws IOException {
+        output.write((number + " 0 obj\n").getBytes(StandardCharsets.US_ASCII));
+        long length = stream.getLength();
+        writeDictionary(output, stream, COSName.LENGTH, length);
+        output.write("\nstream\n".getBytes(StandardCharsets.US_ASCII));
+        long copied;
+        try (InputStream in = stream.createRawInputStream()) {
+            copied = IOUtils.copy(in, output);
+        }
+        if (copied != length) {
+            throw new IOException("Stream object " + number + " holds " + copied + " bytes, expected " + length);
+        }
+        output.write("\nendstream\nendobj\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void writeObjectStream(OutputStream output, int number, List<Integer> batch) throws IOException {
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (Integer objectNumber : batch) {
+            header.write((objectNumber + " " + body.size() + " ").getBytes(StandardCharsets.US_ASCII));
+            writeValue(body, this.objects.get(objectNumber - 1));
+            body.write('\n');
+        }
+
+        ByteArrayOutputStream data = new ByteArrayOutputStream(header.size() + body.size());
+        header.writeTo(data);
+        body.writeTo(data);
+
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.OBJ_STM);
+        dictionary.setInt(COSName.N, batch.size());
+        dictionary.setInt(COSName.FIRST, header.size());
+        writeEncodedStream(output, number, dictionary, data.toByteArray());
+    }
+
+    private void writeXrefStream(OutputStream output, int number, long xrefOffset, long[] offsets, int[] containers, int[] indexes,
+                                 List<Long> objectStreamOffsets, COSDictionary trailer, COSBase root, COSBase info)
+            throws IOException {
+        int objectCount = offsets.length - 1;
+        int size = number + 1;
+        long largest = size;
+        for (long offset : offsets) {
+            largest = Math.max(largest, offset);
+        }
+        for (long offset : objectStreamOffsets) {
+            largest = Math.max(largest, offset);
+        }
+        largest = Math.max(largest, xrefOffset);
+        int fieldWidth = byteCount(largest);
+        // wide enough for the 65535 generation of the free-list head
+        int indexWidth = Math.max(byteCount(OBJECTS_PER_STREAM), 2);
+
+        ByteArrayOutputStream entries = new ByteArrayOutputStream(size * (1 + fieldWidth + indexWidth));
+        writeEntry(entries, 0, 0, fieldWidth, 0xFFFF, indexWidth);
+        for (int i = 1; i <= objectCount; i++) {
+            if (containers[i] == 0) {
+                writeEntry(entries, 1, offsets[i], fieldWidth, 0, indexWidth);
+            } else {
+                writeEntry(entries, 2, containers[i], fieldWidth, indexes[i], indexWidth);
+            }
+        }
+        for (long offset : objectStreamOffsets) {
+            writeEntry(entries, 1, offset, fieldWidth, 0, indexWidth);
+        }
+        writeEntry(entries, 1, xrefOffset, fieldWidth, 0, indexWidth);
+
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.XREF);
+        dictionary.setInt(COSName.SIZE, size);
+        COSArray widths = new COSArray();
+        widths.add(COSInteger.ONE);
+        widths.add(COSInteger.get(fieldWidth));
+        widths.add(COSInteger.get(indexWidth));
+        dictionary.setItem(COSName.W, widths);
+        dictionary.setItem(COSName.ROOT, root);
+        if (info != null) {
+            dictionary.setItem(COSName.INFO, info);
+        }
+        dictionary.setItem(COSName.ID, documentId(trailer, info));
+        writeEncodedStream(output, number, dictionary, entries.toByteArray());
+    }
+
+    private void writeEncodedStream(OutputStream output, int number, COSDictionary dictionary, byte[] data)
+            throws IOException {
+        byte[] encoded = data;
+        if (this.compression.isCompressed()) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 2 + 16);
+            Deflater deflater = new Deflater(this.compression.getDeflateLevel());
+            try (DeflaterOutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+                deflate.write(data);
+            } finally {
+                deflater.end();
+            }
+            encoded = compressed.toByteArray();
+            dictionary.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        }
+
+        output.write((number + " 0 obj\n").getBytes(StandardCharsets.US_ASCII));
+        writeDictionary(output, dictionary, COSName.LENGTH, encoded.length);
+        output.write("\nstream\n".getBytes(StandardCharsets.US_ASCII));
+        output.write(encoded);
+        output.write("\nendstream\nendobj\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static COSArray documentId(COSDictionary trailer, COSBase info) {
+        COSBase existing = trailer.getDictionaryObject(COSName.ID);
+        if (existing instanceof COSArray && ((COSArray) existing).size() == 2) {
+            return (COSArray) existing;
+        }
+
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        md5.update(Long.toString(System.currentTimeMillis()).getBytes(StandardCharsets.ISO_8859_1));
+        COSBase infoObject = info instanceof COSObject ? ((COSObject) info).getObject() : info;
+        if (infoObject instanceof COSDictionary) {
+            for (COSBase value : ((COSDictionary) infoObject).getValues()) {
+                md5.update(String.valueOf(value).getBytes(StandardCharsets.ISO_8859_1));
+            }
+        }
+        COSString id = new COSString(md5.digest());
+        COSArray ids = new COSArray();
+        ids.add(id);
+        ids.add(id);
+        return ids;
+    }
+
+    private void writeDictionary(OutputStream output, COSDictionary dictionary, COSName lengthKey, long length)
+            throws IOException {
+        output.write('<');
+        output.write('<');
+        for (Map.Entry<COSName, COSBase> entry : dictionary.entrySet()) {
+            if (entry.getValue() == null || entry.getKey().equals(lengthKey)) {
+                continue;
+            }
+            entry.getKey().writePDF(output);
+            output.write(' ');
+            writeReferenceOrValue(output, entry.getValue());
+        }
+        if (lengthKey != null) {
+            lengthKey.writePDF(output);
+            output.write(' ');
+            output.write(Long.toString(length).getBytes(StandardCharsets.US_ASCII));
+        }
+        output.write('>');
+        output.write('>');
+    }
+
+    private void writeReferenceOrValue(OutputStream output, COSBase value) throws IOException {
+        if (isIndirect(value)) {
+            COSBase actual = value instanceof COSObject ? ((COSObject) value).getObject() : value;
+            output.write((this.objectNumbers.get(actual) + " 0 R").getBytes(StandardCharsets.US_ASCII));
+        } else {
+            writeValue(output, value instanceof COSObject ? ((COSObject) value).getObject() : value);
+        }
+    }
+
+    private void writeValue(OutputStream output, COSBase value) throws IOException {
+        if (value instanceof COSDictionary) {
+            writeDictionary(output, (COSDictionary) value, null, 0);
+        } else if (value instanceof COSArray) {
+            output.write('[');
+            boolean first = true;
+            for (COSBase item : (COSArray) value) {
+                if (!first) {
+                    output.write(' ');
+                }
+                writeReferenceOrValue(output, item == null ? COSNull.NULL : item);
+                first = false;
+            }
+            output.write(']');
+        } else if (value instanceof COSString) {
+            COSWriter.writeString((COSString) value, output);
+        } else if (value instanceof COSName) {
+            ((COSName) value).writePDF(output);
+        } else if (value instanceof COSInteger) {
+            ((COSInteger) value).writePDF(output);
+        } else if (value instanceof COSFloat) {
+            ((COSFloat) value).writePDF(output);
+        } else if (value instanceof COSBoolean) {
+            ((COSBoolean) value).writePDF(output);
+        } else {
+            COSNull.NULL.writePDF(output);
+        }
+    }
+
+    private static void writeEntry(ByteArrayOutputStream entries, int type, long field, int fieldWidth,
+                                   int index, int indexWidth) {
+        entries.write(type);
+        for (int shift = (fieldWidth - 1) * 8; shift >= 0; shift -= 8) {
+            entries.write((int) (field >>> shift) & 0xFF);
+        }
+        for (int shift = (indexWidth - 1) * 8; shift >= 0; shift -= 8) {
+            entries.write((index >>> shift) & 0xFF);
+        }
+    }
+
+    private static int byteCount(long value) {
+        int bytes = 1;
+        while ((value >>>= 8) != 0) {
+            bytes++;
+        }
+        return bytes;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,468 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.pdfquill.settings.CompressionProfile;
+import org.pdfquill.settings.font.FontMetrics;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * Page content stream writer limited to the operators this library emits. Operators and operands
+ * are written straight into a byte buffer that is reused from page to page; numbers go through a
+ * fixed-precision formatter and text through the {@link FontMetrics} code table, so emitting a line
+ * allocates nothing. The buffer is compressed into the page when the page is finished, as set by
+ * the writer's {@link CompressionProfile}.
+ */
+public final class ContentStreamWriter {
+    private static final int FRACTION_DIGITS = 5;
+    private static final long SCALE = 100000L;
+    private static final float MAX_FIXED = 1e12f;
+
+    private static final byte[] ASCII_BT = ascii("BT\n");
+    private static final byte[] ASCII_ET = ascii("ET\n");
+    private static final byte[] ASCII_TD = ascii(" Td\n");
+    private static final byte[] ASCII_TL = ascii(" TL\n");
+    private static final byte[] ASCII_T_STAR = ascii("T*\n");
+    private static final byte[] ASCII_TF = ascii(" Tf\n");
+    private static final byte[] ASCII_TJ = ascii(") Tj\n");
+    private static final byte[] ASCII_RE = ascii(" re\n");
+    private static final byte[] ASCII_F = ascii("f\n");
+    private static final byte[] ASCII_Q_SAVE = ascii("q\n");
+    private static final byte[] ASCII_Q_RESTORE = ascii("Q\n");
+    private static final byte[] ASCII_ZERO_ZERO = ascii(" 0 0 ");
+    private static final byte[] ASCII_CM = ascii(" cm\n");
+    private static final byte[] ASCII_DO = ascii(" Do\n");
+    private static final byte[] ASCII_TRANSLATE = ascii("1 0 0 1 0 ");
+
+    private final Map<Object, byte[]> resourceNames = new IdentityHashMap<>();
+    private final CompressionProfile compression;
+    private byte[] buffer = new byte[8192];
+    private byte[] encoded = new byte[8192];
+    private Deflater deflater;
+    private int size;
+    private PDResources resources;
+
+    /**
+     * Creates a writer compressing page content with {@link CompressionProfile#BALANCED}.
+     */
+    public ContentStreamWriter() {
+        this(CompressionProfile.BALANCED);
+    }
+
+    /**
+     * Creates a writer compressing page content as requested.
+     *
+     * @param compression compression applied to finished pages
+     */
+    public ContentStreamWriter(CompressionProfile compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression profile cannot be null");
+        }
+        this.compression = compression;
+    }
+
+    /**
+     * @return compression applied to finished pages
+     */
+    public CompressionProfile getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Starts collecting the content of a new page, discarding anything written before.
+     *
+     * @param page page whose resources receive the fonts and images used
+     */
+    public void bindToPage(PDPage page) {
+        PDResources pageResources = page.getResources();
+        if (pageResources == null) {
+            pageResources = new PDResources();
+            page.setResources(pageResources);
+        }
+        this.resources = pageResources;
+        this.resourceNames.clear();
+        this.size = 0;
+    }
+
+    /**
+     * Compresses the collected operators into the page contents. With
+     * {@link CompressionProfile#NONE} the stream is stored without a filter.
+     *
+     * @param document   owner of the new content stream
+     * @param page       page receiving the contents
+     * @param translateY vertical translation applied to the whole page, {@code 0} for none
+     * @throws IOException when the stream cannot be written
+     */
+    public void writeTo(PDDocument document, PDPage page, float translateY) throws IOException {
+        int length = encode(translateY);
+        COSStream stream = document.getDocument().createCOSStream();
+        try (OutputStream out = stream.createRawOutputStream()) {
+            out.write(this.encoded, 0, length);
+        }
+        setContents(page, stream);
+    }
+
+    /**
+     * Compresses the collected operators into the page contents, keeping the encoded bytes in the
+     * store instead of the document's scratch buffer.
+     */
+    void writeTo(PageStore store, PDPage page, float translateY) throws IOException {
+        int length = encode(translateY);
+        setContents(page, store.store(this.encoded, length));
+    }
+
+    private void setContents(PDPage page, COSStream stream) {
+        if (this.compression.isCompressed()) {
+            stream.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+        }
+        page.setContents(new PDStream(stream));
+        discard();
+    }
+
+    /**
+     * Encodes the collected operators, preceded by the page translation, into {@link #encoded}.
+     *
+     * @return number of encoded bytes
+     */
+    private int encode(float translateY) {
+        int contentSize = this.size;
+        if (translateY != 0f) {
+            writeBytes(ASCII_TRANSLATE);
+            writeNumber(translateY);
+            writeBytes(ASCII_CM);
+        }
+
+        // the page translation, written after the content, has to come first in the stream
+        if (!this.compression.isCompressed()) {
+            ensureEncodedCapacity(this.size);
+            int translateSize = this.size - contentSize;
+            System.arraycopy(this.buffer, contentSize, this.encoded, 0, translateSize);
+            System.arraycopy(this.buffer, 0, this.encoded, translateSize, contentSize);
+            return this.size;
+        }
+
+        if (this.deflater == null) {
+            this.deflater = new Deflater(this.compression.getDeflateLevel());
+        }
+        Deflater deflater = this.deflater;
+        try {
+            int length = 0;
+            deflater.setInput(this.buffer, contentSize, this.size - contentSize);
+            while (!deflater.needsInput()) {
+                length = deflate(length);
+            }
+            deflater.setInput(this.buffer, 0, contentSize);
+            deflater.finish();
+            while (!deflater.finished()) {
+                length = deflate(length);
+            }
+            return length;
+        } finally {
+            deflater.reset();
+        }
+    }
+
+    private int deflate(int length) {
+        if (length == this.encoded.length) {
+            this.encoded = Arrays.copyOf(this.encoded, this.encoded.length * 2);
+        }
+        return length + this.deflater.deflate(this.encoded, length, this.encoded.length - length);
+    }
+
+    private void ensureEncodedCapacity(int capacity) {
+        if (capacity > this.encoded.length) {
+            this.encoded = Arrays.copyOf(this.encoded, Math.max(capacity, this.encoded.length * 2));
+        }
+    }
+
+    /**
+     * Drops the collected operators and releases the page.
+     */
+    public void discard() {
+        this.size = 0;
+        this.resources = null;
+        this.resourceNames.clear();
+    }
+
+    /**
+     * Frees the native compression state kept between pages. The writer stays usable and allocates it
+     * again for the next compressed page.
+     */
+    public void release() {
+        if (this.deflater != null) {
+            this.deflater.end();
+            this.deflater = null;
+        }
+    }
+
+    /**
+     * @return number of content bytes the writer can collect before its buffer grows
+     */
+    int capacity() {
+        return Math.max(this.buffer.length, this.encoded.length);
+    }
+
+    /**
+     * @return number of content bytes collected for the current page
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Opens a text object ({@code BT}).
+     */
+    public void beginText() {
+        writeBytes(ASCII_BT);
+    }
+
+    /**
+     * Closes the text object ({@code ET}).
+     */
+    public void endText() {
+        writeBytes(ASCII_ET);
+    }
+
+    /**
+     * Moves to the start of a line offset from the current one ({@code Td}).
+     */
+    public void newLineAtOffset(float tx, float ty) {
+        writeNumber(tx);
+        writeByte(' ');
+        writeNumber(ty);
+        writeBytes(ASCII_TD);
+    }
+
+    /**
+     * Sets the distance used by {@link #newLine()} ({@code TL}).
+     */
+    public void setLeading(float leading) {
+        writeNumber(leading);
+        writeBytes(ASCII_TL);
+    }
+
+    /**
+     * Moves to the start of the next line ({@code T*}).
+     */
+    public void newLine() {
+        writeBytes(ASCII_T_STAR);
+    }
+
+    /**
+     * Selects a font and size ({@code Tf}), registering the font in the page resources.
+     */
+    public void setFont(PDType1Font font, float fontSize) {
+        writeName(font);
+        writeByte(' ');
+        writeNumber(fontSize);
+        writeBytes(ASCII_TF);
+    }
+
+    /**
+     * Shows a string with the current font. Nothing is written when a character cannot be encoded.
+     *
+     * @param text    text to show
+     * @param metrics metrics of the current font
+     * @throws IOException              when the font cannot be read
+     * @throws IllegalArgumentException when the font cannot encode a character
+     */
+    public void showText(String text, FontMetrics metrics) throws IOException {
+        int mark = this.size;
+        try {
+            writeByte('(');
+            for (int i = 0; i < text.length(); i++) {
+                writeStringByte(metrics.getCode(text.charAt(i)));
+            }
+            writeBytes(ASCII_TJ);
+        } catch (IllegalArgumentException | IOException e) {
+            this.size = mark;
+            throw e;
+        }
+    }
+
+    /**
+     * Appends a rectangle to the current path ({@code re}).
+     */
+    public void addRect(float x, float y, float width, float height) {
+        writeNumber(x);
+        writeByte(' ');
+        writeNumber(y);
+        writeByte(' ');
+        writeNumber(width);
+        writeByte(' ');
+        writeNumber(height);
+        writeBytes(ASCII_RE);
+    }
+
+    /**
+     * Fills the current path with the non-zero winding rule ({@code f}).
+     */
+    public void fill() {
+        writeBytes(ASCII_F);
+    }
+
+    /**
+     * Paints an image scaled to the given box, registering it in the page resources.
+     */
+    public void drawImage(PDImageXObject image, float x, float y, float width, float height) {
+        writeBytes(ASCII_Q_SAVE);
+        writeNumber(width);
+        writeBytes(ASCII_ZERO_ZERO);
+        writeNumber(height);
+        writeByte(' ');
+        writeNumber(x);
+        writeByte(' ');
+        writeNumber(y);
+        writeBytes(ASCII_CM);
+        writeName(image);
+        writeBytes(ASCII_DO);
+        writeBytes(ASCII_Q_RESTORE);
+    }
+
+    /**
+     * Paints a form XObject shifted vertically by the given offset, registering it in the page
+     * resources.
+     */
+    public void drawForm(PDFormXObject form, float translateY) {
+        writeBytes(ASCII_Q_SAVE);
+        writeBytes(ASCII_TRANSLATE);
+        writeNumber(translateY);
+        writeBytes(ASCII_CM);
+        writeName(form);
+        writeBytes(ASCII_DO);
+        writeBytes(ASCII_Q_RESTORE);
+    }
+
+    private void writeName(Object resource) {
+        byte[] name = this.resourceNames.get(resource);
+        if (name == null) {
+            COSName key;
+            if (resource instanceof PDType1Font) {
+                key = this.resources.add((PDType1Font) resource);
+            } else if (resource instanceof PDFormXObject) {
+                key = this.resources.add((PDFormXObject) resource);
+            } else {
+                key = this.resources.add((PDImageXObject) resource);
+            }
+            String value = key.getName();
+            name = new byte[value.length() + 1];
+            name[0] = '/';
+            for (int i = 0; i < value.length(); i++) {
+                name[i + 1] = (byte) value.charAt(i);
+            }
+            this.resourceNames.put(resource, name);
+        }
+        writeBytes(name);
+    }
+
+    private void writeStringByte(int code) {
+        if (code == '(' || code == ')' || code == '\\') {
+            writeByte('\\');
+            writeByte(code);
+        } else if (code < 32) {
+            ensureCapacity(4);
+            this.buffer[this.size++] = '\\';
+            this.buffer[this.size++] = (byte) ('0' + (code >> 6));
+            this.buffer[this.size++] = (byte) ('0' + ((code >> 3) & 7));
+            this.buffer[this.size++] = (byte) ('0' + (code & 7));
+        } else {
+            writeByte(code);
+        }
+    }
+
+    void writeNumber(float value) {
+        if (Float.isNaN(value) || Float.isInfinite(value)) {
+            throw new IllegalArgumentException(value + " is not a finite number");
+        }
+        if (Math.abs(value) >= MAX_FIXED) {
+            writeAscii(new BigDecimal(value).setScale(FRACTION_DIGITS, RoundingMode.HALF_UP)
+                    .stripTrailingZeros().toPlainString());
+            return;
+        }
+
+        long scaled = Math.round((double) value * SCALE);
+        if (scaled == 0) {
+            writeByte('0');
+            return;
+        }
+        if (scaled < 0) {
+            writeByte('-');
+            scaled = -scaled;
+        }
+
+        writeDigits(scaled / SCALE, 1);
+        long fraction = scaled % SCALE;
+        if (fraction != 0) {
+            int digits = FRACTION_DIGITS;
+            while (fraction % 10 == 0) {
+                fraction /= 10;
+                digits--;
+            }
+            writeByte('.');
+            writeDigits(fraction, digits);
+        }
+    }
+
+    private void writeDigits(long value, int minDigits) {
+        int digits = 1;
+        for (long rest = value / 10; rest != 0; rest /= 10) {
+            digits++;
+        }
+        digits = Math.max(digits, minDigits);
+        ensureCapacity(digits);
+        for (int i = this.size + digits - 1; i >= this.size; i--) {
+            this.buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        this.size += digits;
+    }
+
+    private void writeAscii(String value) {
+        ensureCapacity(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            this.buffer[this.size++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeByte(int value) {
+        ensureCapacity(1);
+        this.buffer[this.size++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, this.buffer, this.size, value.length);
+        this.size += value.length;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (this.size + extra > this.buffer.length) {
+            byte[] grown = new byte[Math.max(this.buffer.length * 2, this.size + extra)];
+            System.arraycopy(this.buffer, 0, grown, 0, this.size);
+            this.buffer = grown;
+        }
+    }
+
+    private static byte[] ascii(String value) {
+        byte[] bytes = new byte[value.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) value.charAt(i);
+        }
+        return bytes;
+    }
+}
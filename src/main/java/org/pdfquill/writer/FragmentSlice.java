@@ -0,0 +1,68 @@
+package org.pdfquill.writer;
+
+import org.pdfquill.image.EncodedForm;
+
+/**
+ * One recorded page of a compiled fragment: a form holding the page content in the coordinates it
+ * was laid out in, plus the vertical space it takes from the top of the writing area.
+ */
+public final class FragmentSlice {
+    private final EncodedForm form;
+    private final float top;
+    private final float height;
+    private final float depth;
+    private final boolean painted;
+    private final float lift;
+
+    FragmentSlice(EncodedForm form, float top, float height, float depth, boolean painted, float lift) {
+        this.form = form;
+        this.top = top;
+        this.height = height;
+        this.depth = depth;
+        this.painted = painted;
+        this.lift = lift;
+    }
+
+    /**
+     * @return form drawing the slice content
+     */
+    public EncodedForm getForm() {
+        return this.form;
+    }
+
+    /**
+     * @return y coordinate the slice content was laid out from
+     */
+    public float getTop() {
+        return this.top;
+    }
+
+    /**
+     * @return vertical space taken by the slice, including trailing blank lines
+     */
+    public float getHeight() {
+        return this.height;
+    }
+
+    /**
+     * @return distance from {@link #getTop()} down to the lowest baseline or graphic edge
+     */
+    public float getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * @return {@code true} when the slice draws visible content
+     */
+    public boolean isPainted() {
+        return this.painted;
+    }
+
+    /**
+     * @return extra space taken when the slice continues a page instead of opening one; a line that
+     * opens a page is drawn on the top baseline, while further down it first moves a line down
+     */
+    public float getLift() {
+        return this.lift;
+    }
+}
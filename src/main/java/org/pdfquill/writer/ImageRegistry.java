@@ -0,0 +1,292 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.form.PDFormXObject;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.pdfquill.barcode.Barcode;
+import org.pdfquill.image.EncodedForm;
+import org.pdfquill.image.EncodedImage;
+import org.pdfquill.image.ImageFactory;
+import org.pdfquill.settings.CompressionProfile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-document registry of image XObjects keyed by a hash of their pixels (or file bytes), so an
+ * image drawn many times (a logo on every page, a repeated stamp) is encoded and embedded only once.
+ * The hash only narrows the lookup: a copy of the content is kept with every XObject and compared on
+ * each hit, so colliding images are never swapped. Pre-encoded images and forms are keyed by identity.
+ */
+public final class ImageRegistry {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final PDDocument document;
+    private final CompressionProfile compression;
+    private final Map<ImageKey, List<Entry>> images = new HashMap<>();
+    private final Map<ImageKey, List<Entry>> imageFiles = new HashMap<>();
+    private final Map<EncodedImage, PDImageXObject> encodedImages = new IdentityHashMap<>();
+    private final Map<Barcode, PDImageXObject> barcodes = new IdentityHashMap<>();
+    private final Map<EncodedForm, PDFormXObject> forms = new IdentityHashMap<>();
+    private int hits;
+    private int misses;
+
+    /**
+     * Creates a registry that embeds new images into the supplied document.
+     *
+     * @param document owner of the created XObjects
+     */
+    public ImageRegistry(PDDocument document) {
+        this(document, CompressionProfile.BALANCED);
+    }
+
+    /**
+     * Creates a registry that embeds new images into the supplied document, encoding them with the
+     * given compression profile. Pre-encoded images keep the compression they were encoded with.
+     *
+     * @param document    owner of the created XObjects
+     * @param compression compression applied to images encoded by this registry
+     */
+    public ImageRegistry(PDDocument document, CompressionProfile compression) {
+        this.document = document;
+        this.compression = compression;
+    }
+
+    /**
+     * Returns the XObject previously created for identical pixels, or encodes the image on first use.
+     *
+     * @param image image to embed
+     * @return XObject to draw
+     * @throws IOException when the image cannot be encoded
+     */
+    public PDImageXObject resolve(BufferedImage image) throws IOException {
+        ImageKey key = new ImageKey(image.getWidth(), image.getHeight(), hashPixels(image));
+        List<Entry> candidates = this.images.get(key);
+        if (candidates != null) {
+            for (Entry candidate : candidates) {
+                if (samePixels(image, (int[]) candidate.content)) {
+                    this.hits++;
+                    return candidate.image;
+                }
+            }
+        }
+
+        this.misses++;
+        PDImageXObject pdImage = ImageFactory.createFromImage(this.document, image, this.compression);
+        this.images.computeIfAbsent(key, k -> new ArrayList<>(1)).add(new Entry(readPixels(image), pdImage));
+        return pdImage;
+    }
+
+    /**
+     * Returns the XObject previously created for an identical image file, or embeds the file on first
+     * use. JPEG and PNG data are passed through without being decoded, see {@link ImageFactory}.
+     *
+     * @param imageBytes image file contents
+     * @return XObject to draw
+     * @throws IOException when the image cannot be read or encoded
+     */
+    public PDImageXObject resolve(byte[] imageBytes) throws IOException {
+        // files are keyed by their length and content hash
+        ImageKey key = new ImageKey(imageBytes.length, 0, hashBytes(imageBytes));
+        List<Entry> candidates = this.imageFiles.get(key);
+        if (candidates != null) {
+            for (Entry candidate : candidates) {
+                if (Arrays.equals(imageBytes, (byte[]) candidate.content)) {
+                    this.hits++;
+                    return candidate.image;
+                }
+            }
+        }
+
+        this.misses++;
+        PDImageXObject pdImage = ImageFactory.createFromBytes(this.document, imageBytes, this.compression);
+        this.imageFiles.computeIfAbsent(key, k -> new ArrayList<>(1)).add(new Entry(imageBytes.clone(), pdImage));
+        return pdImage;
+    }
+
+    /**
+     * Returns the XObject previously embedded for the supplied pre-encoded image, or copies its
+     * compressed bytes into the document on first use.
+     *
+     * @param image pre-encoded image, typically taken from an {@link org.pdfquill.image.ImageCache}
+     * @return XObject to draw
+     * @throws IOException when the image cannot be embedded
+     */
+    public PDImageXObject resolve(EncodedImage image) throws IOException {
+        PDImageXObject pdImage = this.encodedImages.get(image);
+        if (pdImage != null) {
+            this.hits++;
+            return pdImage;
+        }
+
+        this.misses++;
+        pdImage = image.embed(this.document);
+        this.encodedImages.put(image, pdImage);
+        return pdImage;
+    }
+
+    /**
+     * Returns the bitmap previously created for the supplied barcode instance, or packs its modules into
+     * a 1-bit image on first use.
+     *
+     * @param barcode encoded barcode
+     * @return XObject to draw
+     * @throws IOException when the bitmap cannot be compressed
+     */
+    public PDImageXObject resolve(Barcode barcode) throws IOException {
+        PDImageXObject pdImage = this.barcodes.get(barcode);
+        if (pdImage != null) {
+            this.hits++;
+            return pdImage;
+        }
+
+        this.misses++;
+        pdImage = ImageFactory.createFromPackedBits(this.document, barcode.toPackedRows(),
+                barcode.getWidth(), barcode.getHeight(), this.compression);
+        this.barcodes.put(barcode, pdImage);
+        return pdImage;
+    }
+
+    /**
+     * Returns the form previously embedded for the supplied pre-encoded form, or copies its content
+     * and resources into the document on first use.
+     *
+     * @param form pre-encoded form, typically a slice of a compiled fragment
+     * @return form to draw
+     * @throws IOException when the form cannot be embedded
+     */
+    public PDFormXObject resolve(EncodedForm form) throws IOException {
+        PDFormXObject pdForm = this.forms.get(form);
+        if (pdForm != null) {
+            this.hits++;
+            return pdForm;
+        }
+
+        this.misses++;
+        pdForm = form.embed(this.document);
+        this.forms.put(form, pdForm);
+        return pdForm;
+    }
+
+    /**
+     * @return number of lookups served by an already embedded image
+     */
+    public int getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return number of lookups that had to encode a new image
+     */
+    public int getMisses() {
+        return this.misses;
+    }
+
+    static long hashPixels(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] row = new int[width];
+        long hash = FNV_OFFSET;
+        for (int y = 0; y < height; y++) {
+            readRow(image, y, row);
+            for (int pixel : row) {
+                hash = (hash ^ pixel) * FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    private static boolean samePixels(BufferedImage image, int[] pixels) {
+        int width = image.getWidth();
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            readRow(image, y, row);
+            for (int x = 0, offset = y * width; x < width; x++) {
+                if (row[x] != pixels[offset + x]) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] readPixels(BufferedImage image) {
+        int width = image.getWidth();
+        int[] pixels = new int[width * image.getHeight()];
+        int[] row = new int[width];
+        for (int y = 0; y < image.getHeight(); y++) {
+            readRow(image, y, row);
+            System.arraycopy(row, 0, pixels, y * width, width);
+        }
+        return pixels;
+    }
+
+    /**
+     * Reads a row as ARGB, except for 8-bit gray images whose raw samples are read: they are embedded
+     * from the raster, and distinct samples may share an sRGB value.
+     */
+    private static void readRow(BufferedImage image, int y, int[] row) {
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            image.getRaster().getSamples(0, y, row.length, 1, 0, row);
+        } else {
+            image.getRGB(0, y, row.length, 1, row, 0, row.length);
+        }
+    }
+
+    private static long hashBytes(byte[] data) {
+        long hash = FNV_OFFSET;
+        for (byte value : data) {
+            hash = (hash ^ value) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Embedded XObject along with the content it was created from.
+     */
+    private static final class Entry {
+        private final Object content;
+        private final PDImageXObject image;
+
+        private Entry(Object content, PDImageXObject image) {
+            this.content = content;
+            this.image = image;
+        }
+    }
+
+    private static final class ImageKey {
+        private final int width;
+        private final int height;
+        private final long hash;
+
+        private ImageKey(int width, int height, long hash) {
+            this.width = width;
+            this.height = height;
+            this.hash = hash;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof ImageKey)) {
+                return false;
+            }
+            ImageKey that = (ImageKey) o;
+            return width == that.width && height == that.height && hash == that.hash;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (hash ^ (hash >>> 32)) * 31 + width * 17 + height;
+        }
+    }
+}
@@ -1,11 +1,21 @@
 package org.pdfquill.writer;
 
+import org.pdfquill.settings.font.FontSettings;
+
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * Collects the chunks of one text line. Consecutive chunks drawn with the same font and size are
+ * merged into a single run, so the line is shown with one text operator per font change rather
+ * than one per fragment.
+ */
 public final class LineAccumulator {
     private final float startX;
     private final List<Text> chunks = new ArrayList<>();
+    private final StringBuilder runText = new StringBuilder();
+    private Text run;
+    private int runChunks;
     private float width = 0f;
     private int maxFontSize = 0;
 
@@ -18,12 +28,24 @@ public final class LineAccumulator {
     }
 
     public boolean isEmpty() {
-        return chunks.isEmpty();
+        return run == null && chunks.isEmpty();
     }
 
     public void addChunk(Text text, float textWidth, int fontSize) {
-        text.setX(startX + width);
-        chunks.add(text);
+        if (run != null && sameFont(run.getFontSetting(), text.getFontSetting())) {
+            if (runChunks == 1) {
+                runText.setLength(0);
+                runText.append(run.getText());
+            }
+            runText.append(text.getText());
+            runChunks++;
+        } else {
+            closeRun();
+            text.setX(startX + width);
+            run = text;
+            runChunks = 1;
+        }
+
         width += textWidth;
         if (fontSize > maxFontSize) {
             maxFontSize = fontSize;
@@ -31,6 +53,7 @@ public final class LineAccumulator {
     }
 
     public void flushInto(List<TextLinePlan> target) {
+        closeRun();
         if (chunks.isEmpty()) {
             return;
         }
@@ -44,4 +67,24 @@ public final class LineAccumulator {
         width = 0f;
         maxFontSize = 0;
     }
-}
\ No newline at end of file
+
+    private void closeRun() {
+        if (run == null) {
+            return;
+        }
+        if (runChunks > 1) {
+            Text merged = new Text(runText.toString(), run.getFontSetting());
+            merged.setX(run.getX());
+            chunks.add(merged);
+        } else {
+            chunks.add(run);
+        }
+        run = null;
+        runChunks = 0;
+    }
+
+    private static boolean sameFont(FontSettings first, FontSettings second) {
+        return first == second || (first.getSelectedFont() == second.getSelectedFont()
+                && first.getFontSize() == second.getFontSize());
+    }
+}
@@ -0,0 +1,150 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.pdfquill.settings.font.FontMetrics;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Single-pass line breaker for mixed-font {@link Text} runs. Each run is walked with a cursor over a
+ * table of its glyph advances, looked up once per character, so a long unbroken run costs linear
+ * time instead of being re-measured and re-split from its start for every line. The produced plans
+ * are identical to the split-and-retry algorithm built on
+ * {@link org.pdfquill.formatter.ContentFormatter#splitText(Text, float)}, including the float
+ * rounding of every width.
+ */
+public final class LineBreaker {
+    private final float startX;
+    private final float maxLineWidth;
+
+    public LineBreaker(float startX, float maxLineWidth) {
+        this.startX = startX;
+        this.maxLineWidth = maxLineWidth;
+    }
+
+    public List<TextLinePlan> breakLines(List<Text> texts) throws IOException {
+        List<TextLinePlan> lines = new ArrayList<>();
+        LineAccumulator currentLine = new LineAccumulator(this.startX);
+
+        for (Text text : texts) {
+            if (text == null || text.getText() == null || text.getText().isEmpty()) {
+                continue;
+            }
+            breakRun(text, currentLine, lines);
+        }
+
+        currentLine.flushInto(lines);
+        return lines;
+    }
+
+    private void breakRun(Text run, LineAccumulator currentLine, List<TextLinePlan> lines) throws IOException {
+        String content = run.getText();
+        PDType1Font font = run.getFontSetting().getSelectedFont();
+        int fontSize = run.getFontSetting().getFontSize();
+        int n = content.length();
+
+        FontMetrics metrics = FontMetrics.of(font);
+        float[] advances = new float[n];
+        for (int i = 0; i < n; i++) {
+            advances[i] = metrics.getRawWidth(content.charAt(i));
+        }
+
+        int pos = 0;
+        while (pos < n) {
+            float availableWidth = this.maxLineWidth - currentLine.getWidth();
+
+            // widths only grow along the run, so scanning stops at the first overflowing character
+            float rawWidth = 0f;
+            int scanned = pos;
+            while (scanned < n && scale(rawWidth, fontSize) <= availableWidth) {
+                rawWidth += advances[scanned++];
+            }
+            if (scanned == n && scale(rawWidth, fontSize) <= availableWidth) {
+                currentLine.addChunk(chunk(content, pos, n, run), scale(rawWidth, fontSize), fontSize);
+                return;
+            }
+
+            if (!currentLine.isEmpty()
+                    && (availableWidth <= 0 || scale(advances[pos], fontSize) > availableWidth)) {
+                currentLine.flushInto(lines);
+                continue;
+            }
+
+            int breakIdx = findWrapIndex(content, advances, pos, n, fontSize, availableWidth);
+            if (breakIdx <= pos) {
+                breakIdx = pos + 1;
+            }
+            if (breakIdx >= n) {
+                currentLine.addChunk(chunk(content, pos, n, run), width(advances, pos, n, fontSize), fontSize);
+                return;
+            }
+
+            int headEnd = breakIdx;
+            while (headEnd > pos && Character.isWhitespace(content.charAt(headEnd - 1))) {
+                headEnd--;
+            }
+            int tailStart = breakIdx;
+            while (tailStart < n && Character.isWhitespace(content.charAt(tailStart))) {
+                tailStart++;
+            }
+
+            if (headEnd > pos) {
+                currentLine.addChunk(chunk(content, pos, headEnd, run), width(advances, pos, headEnd, fontSize), fontSize);
+            }
+            if (tailStart >= n) {
+                return;
+            }
+
+            currentLine.flushInto(lines);
+            pos = tailStart;
+        }
+    }
+
+    private static int findWrapIndex(String content, float[] advances, int start, int end, int fontSize,
+                                     float maxWidth) {
+        if (maxWidth <= 0) {
+            return start;
+        }
+
+        float width = 0f;
+        int lastFitting = start;
+        for (int i = start; i < end; i++) {
+            float charWidth = scale(advances[i], fontSize);
+            if (width + charWidth > maxWidth) {
+                break;
+            }
+            width += charWidth;
+            lastFitting = i + 1;
+        }
+
+        if (lastFitting == start) {
+            return start;
+        }
+
+        for (int i = lastFitting - 1; i >= start; i--) {
+            if (Character.isWhitespace(content.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return lastFitting;
+    }
+
+    private static Text chunk(String content, int start, int end, Text run) {
+        String text = start == 0 && end == content.length() ? content : content.substring(start, end);
+        return new Text(text, run.getFontSetting());
+    }
+
+    private static float width(float[] advances, int start, int end, int fontSize) {
+        float rawWidth = 0f;
+        for (int i = start; i < end; i++) {
+            rawWidth += advances[i];
+        }
+        return scale(rawWidth, fontSize);
+    }
+
+    private static float scale(float rawWidth, int fontSize) {
+        return rawWidth * fontSize / 1000f;
+    }
+}
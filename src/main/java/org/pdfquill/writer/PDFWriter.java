@@ -1,42 +1,60 @@
 package org.pdfquill.writer;
 
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDPage;
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.PDPageTree;
 import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.pdmodel.graphics.image.LosslessFactory;
 import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
-import org.apache.pdfbox.text.PDFTextStripper;
-import org.pdfquill.formatter.ContentFormatter;
+import org.pdfquill.barcode.Barcode;
+import org.pdfquill.image.EncodedForm;
+import org.pdfquill.image.EncodedImage;
 import org.pdfquill.settings.font.FontUtils;
 import org.pdfquill.settings.font.FontType;
+import org.pdfquill.settings.CompressionProfile;
 import org.pdfquill.settings.PageLayout;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
-import java.util.ArrayDeque;
+import java.io.OutputStream;
 import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.function.BooleanSupplier;
 
 /**
  * Manages the PDF document lifecycle, providing a cursor-like interface for writing content.
  * It handles page creation, content streams, and final document processing.
+ * <p>
+ * Thermal paper is written in roll mode: each page is laid out on the full-height paper and, once the
+ * writer moves on, shrunk so its media box ends right below the lowest content drawn on it.
  */
 public class PDFWriter {
     private final PDDocument document;
-    private final ByteArrayOutputStream os;
     private final PDRectangle pageSize;
     private final PageLayout pageLayout;
 
     private PDPage currentPage;
-    private PDPageContentStream contentStream;
+    private ContentStreamWriter contentStream;
     private final TextCursor textCursor;
+    private final List<PDPage> blankPages;
+    private final ImageRegistry imageRegistry;
+    private final CompressionProfile compression;
+    private final boolean compactOutput;
+    private final WriterPool pool;
+    // setting picked by the caller for finished pages, null to keep them in memory
+    private final MemoryUsageSetting pageMemoryUsage;
+    private PageStore pageStore;
+    private BooleanSupplier cancellation;
+    private List<FragmentSlice> recordedSlices;
+    // space the first line skipped because it opened the current page
+    private float pageLift;
 
     /**
      * Creates a writer responsible for generating a PDF according to the supplied layout.
@@ -44,13 +62,73 @@ public class PDFWriter {
      * @param pageLayout layout describing page dimensions and metrics
      */
     public PDFWriter(PageLayout pageLayout) {
+        this(pageLayout, CompressionProfile.BALANCED);
+    }
+
+    /**
+     * Creates a writer responsible for generating a PDF according to the supplied layout, compressing
+     * page content and images with the given profile.
+     *
+     * @param pageLayout  layout describing page dimensions and metrics
+     * @param compression compression applied to page content and encoded images
+     */
+    public PDFWriter(PageLayout pageLayout, CompressionProfile compression) {
+        this(pageLayout, compression, false);
+    }
+
+    /**
+     * Creates a writer responsible for generating a PDF according to the supplied layout.
+     *
+     * @param pageLayout    layout describing page dimensions and metrics
+     * @param compression   compression applied to page content, encoded images and object streams
+     * @param compactOutput {@code true} to save with object streams and a cross-reference stream,
+     *                      see {@link CompactDocumentWriter}
+     */
+    public PDFWriter(PageLayout pageLayout, CompressionProfile compression, boolean compactOutput) {
+        this(pageLayout, compression, compactOutput, null, null, null);
+    }
+
+    /**
+     * Creates a writer whose document buffers its streams as the memory usage setting allows. With a
+     * setting that allows temp files, the content of every finished page is also moved to a temporary
+     * file in the setting's directory, so only the page dictionaries stay on the heap until saving.
+     *
+     * @param pageLayout    layout describing page dimensions and metrics
+     * @param compression   compression applied to page content, encoded images and object streams
+     * @param compactOutput {@code true} to save with object streams and a cross-reference stream
+     * @param memoryUsage   PDFBox memory usage setting, or {@code null} to keep everything in memory
+     */
+    public PDFWriter(PageLayout pageLayout, CompressionProfile compression, boolean compactOutput,
+                     MemoryUsageSetting memoryUsage) {
+        this(pageLayout, compression, compactOutput, null, memoryUsage, memoryUsage);
+    }
+
+    /**
+     * Creates a writer borrowing its buffers from a pool and handing them back once the document is
+     * saved or closed, see {@link WriterPool}.
+     *
+     * @param pageLayout    layout describing page dimensions and metrics
+     * @param compactOutput {@code true} to save with object streams and a cross-reference stream
+     * @param pool          pool supplying the buffers and the compression applied
+     */
+    public PDFWriter(PageLayout pageLayout, boolean compactOutput, WriterPool pool) {
+        this(pageLayout, pool.getCompression(), compactOutput, pool, pool.getMemoryUsage(), pool.getPageMemoryUsage());
+    }
+
+    private PDFWriter(PageLayout pageLayout, CompressionProfile compression, boolean compactOutput, WriterPool pool,
+                      MemoryUsageSetting memoryUsage, MemoryUsageSetting pageMemoryUsage) {
         this.pageLayout = pageLayout;
-        this.os = new ByteArrayOutputStream();
-        this.document = new PDDocument();
+        this.compression = compression;
+        this.compactOutput = compactOutput;
+        this.pool = pool;
+        this.pageMemoryUsage = pageMemoryUsage;
+        this.document = memoryUsage != null ? new PDDocument(memoryUsage) : new PDDocument();
         this.pageSize = new PDRectangle(pageLayout.getPageWidth(), pageLayout.getPageHeight());
         this.currentPage = null;
-        this.contentStream = null;
+        this.contentStream = pool != null ? pool.acquireContentStream() : new ContentStreamWriter(compression);
         this.textCursor = new TextCursor();
+        this.blankPages = new ArrayList<>();
+        this.imageRegistry = new ImageRegistry(this.document, compression);
     }
 
     private void incrementWrittenHeight() {
@@ -79,13 +157,16 @@ public class PDFWriter {
      */
     public void writeLine(String line, FontType fontType) throws IOException {
         incrementWrittenHeight();
-        addNewPageIfNeeded();
+        if (addNewPageIfNeeded()) {
+            this.pageLift = this.pageLayout.getLineHeight();
+        }
         float lineY = getCurrentY();
         addTextLine(line, this.pageLayout.getStartX(), lineY, fontType);
     }
 
     /**
-     * Writes an image to the document, centering it and handling pagination.
+     * Writes an image to the document, centering it and handling pagination. Images whose pixels were
+     * already embedded in this document reuse the existing XObject.
      *
      * @param image       The image to write.
      * @param imageWidth  The desired width of the image in points.
@@ -93,7 +174,23 @@ public class PDFWriter {
      * @throws IOException if writing to the content stream fails.
      */
     public void writeImage(BufferedImage image, float imageWidth, float imageHeight) throws IOException {
-        PDImageXObject pdImage = LosslessFactory.createFromImage(this.document, image);
+        drawImage(this.imageRegistry.resolve(image), imageWidth, imageHeight);
+    }
+
+    /**
+     * Writes a pre-encoded image, copying its compressed bytes into the document the first time it is
+     * used and reusing the same XObject afterwards.
+     *
+     * @param image       The pre-encoded image to write.
+     * @param imageWidth  The desired width of the image in points.
+     * @param imageHeight The desired height of the image in points.
+     * @throws IOException if writing to the content stream fails.
+     */
+    public void writeImage(EncodedImage image, float imageWidth, float imageHeight) throws IOException {
+        drawImage(this.imageRegistry.resolve(image), imageWidth, imageHeight);
+    }
+
+    private void drawImage(PDImageXObject pdImage, float imageWidth, float imageHeight) throws IOException {
         addNewPageIfNeeded(imageHeight);
         incrementWrittenHeight();
         float lineY = (getCurrentY()) - imageHeight;
@@ -101,12 +198,120 @@ public class PDFWriter {
 
         this.textCursor.closeTextObject();
         contentStream.drawImage(pdImage, imageStartX, lineY, imageWidth, imageHeight);
+        this.textCursor.markPainted(lineY);
         incrementWrittenHeight(imageHeight);
     }
 
+    /**
+     * Writes a barcode as vector rectangles, centering it and handling pagination like an image.
+     *
+     * @param barcode       The encoded barcode to draw.
+     * @param barcodeWidth  The desired width of the barcode in points.
+     * @param barcodeHeight The desired height of the barcode in points.
+     * @throws IOException if writing to the content stream fails.
+     */
+    public void writeBarcode(Barcode barcode, float barcodeWidth, float barcodeHeight) throws IOException {
+        addNewPageIfNeeded(barcodeHeight);
+        incrementWrittenHeight();
+        float top = getCurrentY();
+        float startX = this.pageLayout.getStartX() + (this.pageLayout.getMaxLineWidth() - barcodeWidth) / 2;
+        float moduleWidth = barcodeWidth / barcode.getWidth();
+        float moduleHeight = barcodeHeight / barcode.getHeight();
+
+        this.textCursor.closeTextObject();
+        int[] rectangles = barcode.getRectangles();
+        for (int i = 0; i < rectangles.length; i += 4) {
+            contentStream.addRect(startX + rectangles[i] * moduleWidth,
+                    top - (rectangles[i + 1] + rectangles[i + 3]) * moduleHeight,
+                    rectangles[i + 2] * moduleWidth, rectangles[i + 3] * moduleHeight);
+        }
+        if (rectangles.length > 0) {
+            contentStream.fill();
+            this.textCursor.markPainted(top - barcodeHeight);
+        }
+        incrementWrittenHeight(barcodeHeight);
+    }
+
+    /**
+     * Writes a barcode as a 1-bit image holding one pixel per matrix cell, scaled to the requested size
+     * in the page.
+     *
+     * @param barcode       The encoded barcode to draw.
+     * @param barcodeWidth  The desired width of the barcode in points.
+     * @param barcodeHeight The desired height of the barcode in points.
+     * @throws IOException if writing to the content stream fails.
+     */
+    public void writeBarcodeImage(Barcode barcode, float barcodeWidth, float barcodeHeight) throws IOException {
+        drawImage(this.imageRegistry.resolve(barcode), barcodeWidth, barcodeHeight);
+    }
+
+    /**
+     * Writes an image file to the document. JPEG and PNG data are embedded without being decoded;
+     * only their headers are read.
+     *
+     * @param imgBytes image file contents
+     * @param width    The desired width of the image in points.
+     * @param height   The desired height of the image in points.
+     * @throws IOException if the image cannot be read or writing to the content stream fails.
+     */
     public void writeImage(ByteArrayInputStream imgBytes, int width, int height) throws IOException {
-        BufferedImage image = ImageIO.read(imgBytes);
-        writeImage(image, width, height);
+        drawImage(this.imageRegistry.resolve(IOUtils.toByteArray(imgBytes)), width, height);
+    }
+
+    /**
+     * Stamps a slice of a compiled fragment at the current position, moving to a new page first when
+     * the slice does not fit in the space left. Like the calls it was recorded from, a slice opening a
+     * page starts on the top baseline, while a slice continuing a page takes its extra lift.
+     *
+     * @param slice slice recorded by {@link #finishRecording()}
+     * @throws IOException if the form cannot be embedded or writing to the content stream fails
+     */
+    public void writeFragmentSlice(FragmentSlice slice) throws IOException {
+        float lift = addNewPageIfNeeded(slice.getHeight() + slice.getLift()) ? 0f : slice.getLift();
+        float top = this.pageLayout.getStartY() - this.textCursor.getWrittenHeight() - lift;
+
+        this.textCursor.closeTextObject();
+        contentStream.drawForm(this.imageRegistry.resolve(slice.getForm()), top - slice.getTop());
+        if (slice.isPainted()) {
+            this.textCursor.markPainted(top - slice.getDepth());
+        } else {
+            this.textCursor.markReached(top - slice.getDepth());
+        }
+        incrementWrittenHeight(slice.getHeight() + lift);
+    }
+
+    /**
+     * Switches this writer to recording: instead of being fitted or dropped, every finished page is
+     * kept as a {@link FragmentSlice}, collected by {@link #finishRecording()}. Must be called before
+     * anything is written.
+     *
+     * @throws IllegalStateException when content has already been written
+     */
+    public void startRecording() {
+        if (this.document.getNumberOfPages() > 0) {
+            throw new IllegalStateException("Recording must start before any content is written");
+        }
+        this.recordedSlices = new ArrayList<>();
+    }
+
+    /**
+     * Finishes the recording started by {@link #startRecording()} and closes the document.
+     *
+     * @return recorded pages in order, skipping trailing pages that hold nothing
+     * @throws IOException when a page cannot be captured
+     * @throws IllegalStateException when the writer is not recording
+     */
+    public List<FragmentSlice> finishRecording() throws IOException {
+        if (this.recordedSlices == null) {
+            throw new IllegalStateException("Writer is not recording");
+        }
+        try {
+            finishCurrentPage();
+            return Collections.unmodifiableList(new ArrayList<>(this.recordedSlices));
+        } finally {
+            this.recordedSlices = null;
+            close();
+        }
     }
 
     /**
@@ -115,6 +320,7 @@ public class PDFWriter {
      * @throws IOException when drawing the signal fails
      */
     public void writeCutSignal() throws IOException {
+        ensureOpen();
         float lineY = getCurrentY();
 
         this.textCursor.showTextAt(createFullWidthString(" "), this.pageLayout.getStartX(),
@@ -129,7 +335,8 @@ public class PDFWriter {
     }
 
     private String createFullWidthString(String text) throws IOException {
-        float textWidth = this.pageLayout.getFontSettings().getDefaultFont().getStringWidth(text) * this.pageLayout.getFontSettings().getFontSize() / 1000f;
+        float textWidth = FontUtils.getTextWidth(text, this.pageLayout.getFontSettings().getDefaultFont(),
+                this.pageLayout.getFontSettings().getFontSize());
         int repetitions = (int) Math.ceil(this.pageLayout.getMaxLineWidth() / textWidth);
         StringBuilder sb = new StringBuilder(text.length() * repetitions);
         for (int i = 0; i < repetitions; i++) {
@@ -151,62 +358,13 @@ public class PDFWriter {
         }
     }
 
-    //TODO: This method is using addTextLine which opens and closes text everytime, that's not right
-    //TODO: change to open only once and update using newLineAtOffset passing Y as 0 if we need to stay at the same line
     public void writeFromTextLines(TextBuilder textBuilder) throws IOException {
         if (textBuilder == null || textBuilder.getTextList().isEmpty()) {
             return;
         }
 
-        Deque<Text> pendingTexts = new ArrayDeque<>(textBuilder.getTextList());
-        List<TextLinePlan> lines = new ArrayList<>();
-        LineAccumulator currentLine = new LineAccumulator(this.pageLayout.getStartX());
-        float maxLineWidth = this.pageLayout.getMaxLineWidth();
-
-        while (!pendingTexts.isEmpty()) {
-            Text current = pendingTexts.pollFirst();
-            if (current == null) {
-                continue;
-            }
-
-            String rawText = current.getText();
-            if (rawText == null || rawText.isEmpty()) {
-                continue;
-            }
-
-            PDType1Font font = current.getFontSetting().getSelectedFont();
-            int fontSize = current.getFontSetting().getFontSize();
-            float availableWidth = maxLineWidth - currentLine.getWidth();
-            float textWidth = FontUtils.getTextWidth(rawText, font, fontSize);
-
-            if (textWidth <= availableWidth) {
-                Text chunk = new Text(rawText, current.getFontSetting());
-                currentLine.addChunk(chunk, textWidth, fontSize);
-                continue;
-            }
-
-            if (availableWidth <= 0 || (!currentLine.isEmpty() && FontUtils.getTextWidth(rawText.substring(0, 1), font, fontSize) > availableWidth)) {
-                currentLine.flushInto(lines);
-                pendingTexts.addFirst(current);
-                continue;
-            }
-
-            SplitParts split = ContentFormatter.splitText(current, availableWidth);
-            if (split.head() != null && !split.head().isEmpty()) {
-                float headWidth = FontUtils.getTextWidth(split.head(), font, fontSize);
-                Text chunk = new Text(split.head(), current.getFontSetting());
-                currentLine.addChunk(chunk, headWidth, fontSize);
-            }
-
-            if (split.tail() == null || split.tail().isEmpty()) {
-                continue;
-            }
-
-            currentLine.flushInto(lines);
-            pendingTexts.addFirst(new Text(split.tail(), current.getFontSetting()));
-        }
-
-        currentLine.flushInto(lines);
+        LineBreaker lineBreaker = new LineBreaker(this.pageLayout.getStartX(), this.pageLayout.getMaxLineWidth());
+        List<TextLinePlan> lines = lineBreaker.breakLines(textBuilder.getTextList());
 
         for (TextLinePlan textLinePlan : lines) {
             float lineHeight = textLinePlan.getMaxFontSize() * pageLayout.getLineSpacing();
@@ -237,6 +395,7 @@ public class PDFWriter {
     }
 
     private boolean addNewPageIfNeeded() throws IOException {
+        ensureOpen();
         if (document.getNumberOfPages() == 0 || willNewContentExceedPageWritingHeight(this.pageLayout.getLineHeight())) {
             addNewPage();
             return true;
@@ -245,6 +404,7 @@ public class PDFWriter {
     }
 
     private boolean addNewPageIfNeeded(float height) throws IOException {
+        ensureOpen();
         if (document.getNumberOfPages() == 0 || willNewContentExceedPageWritingHeight(height)) {
             addNewPage();
             return true;
@@ -252,83 +412,216 @@ public class PDFWriter {
         return false;
     }
 
+    /**
+     * Makes the writer check the supplied condition whenever it opens a page or saves the document,
+     * abandoning the document with a {@link CancellationException} once the condition holds.
+     *
+     * @param cancellation condition telling whether the document is no longer wanted, or
+     *                     {@code null} to never cancel
+     */
+    public void setCancellation(BooleanSupplier cancellation) {
+        this.cancellation = cancellation;
+    }
+
+    private void checkCancelled() {
+        if (this.cancellation != null && this.cancellation.getAsBoolean()) {
+            throw new CancellationException("Document rendering was cancelled");
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.contentStream == null) {
+            throw new IOException("Cannot write to a document which has been closed");
+        }
+    }
+
     private boolean willNewContentExceedPageWritingHeight(float height) {
         return this.textCursor.getWrittenHeight() + height > this.pageLayout.getPageWritingHeight();
     }
 
     private void addNewPage() throws IOException {
-        if (this.contentStream != null) {
-            this.textCursor.closeTextObject();
-            this.contentStream.close();
-        }
+        checkCancelled();
+        finishCurrentPage();
         this.currentPage = new PDPage(this.pageSize);
+        this.pageLift = 0f;
         this.document.addPage(this.currentPage);
-        this.contentStream = new PDPageContentStream(this.document, this.currentPage);
+        this.contentStream.bindToPage(this.currentPage);
         this.textCursor.bindToContentStream(this.contentStream, this.pageLayout.getStartX(), this.pageLayout.getStartY());
     }
 
+    /**
+     * Finalises the document and returns its serialised form.
+     *
+     * @return PDF bytes
+     * @throws IOException when saving fails
+     */
     public byte[] saveAndGetBytes() throws IOException {
-        if (this.contentStream != null) {
-            this.textCursor.closeTextObject();
-            this.contentStream.close();
+        if (this.pool == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            writeTo(out);
+            return out.toByteArray();
         }
-        if (!isClosed()) {
-            this.document.save(this.os);
-            this.document.close();
-            return cropPDF(this.os.toByteArray());
+
+        WriterPool.OutputBuffer out = this.pool.acquireOutput();
+        try {
+            writeTo(out);
+            return out.toByteArray();
+        } finally {
+            this.pool.releaseOutput(out);
         }
-        return this.os.toByteArray();
     }
 
-    private byte[] cropPDF(byte[] bs) throws IOException {
-        ByteArrayInputStream in = new ByteArrayInputStream(bs);
-        PDDocument document = PDDocument.load(in);
-        PDPageTree pages = document.getDocumentCatalog().getPages();
-        float lineHeight = this.pageLayout.getLineHeight();
-
-        for (PDPage page : pages) {
-            if (this.pageLayout.isThermalPaper()) {
-                PDRectangle mediaBox = page.getMediaBox();
-                PDRectangle cropBox = new PDRectangle(mediaBox.getLowerLeftX(), this.pageLayout.getPageHeight()
-                        - this.textCursor.getWrittenHeight() - lineHeight,
-                        mediaBox.getUpperRightX() - 3, this.textCursor.getWrittenHeight() + lineHeight);
-
-                page.setCropBox(cropBox);
+    /**
+     * Finalises the document and serialises it straight into the supplied sink. The sink is flushed
+     * but left open, so callers keep ownership of sockets, files or servlet responses. The document is
+     * closed and its buffers released even when saving fails.
+     *
+     * @param out destination for the PDF bytes
+     * @throws IOException when saving fails or the document has already been closed
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (isClosed()) {
+            throw new IOException("Cannot save a document which has been closed");
+        }
+        try {
+            checkCancelled();
+            finishCurrentPage();
+            removeBlankPages();
+            if (this.compactOutput) {
+                new CompactDocumentWriter(this.compression).write(this.document, out);
             } else {
-                if (isPageBlank(document, page)) {
-                    document.removePage(page);
-                }
+                this.document.save(new NonClosingOutputStream(out));
             }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Closes the content stream of the page being written and settles its final shape: thermal pages
+     * are fitted to their content, other pages are queued for removal when nothing visible was drawn.
+     */
+    private void finishCurrentPage() throws IOException {
+        if (this.currentPage == null) {
+            return;
         }
 
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        document.save(out);
-        document.close();
+        this.textCursor.closeTextObject();
+        if (this.recordedSlices != null) {
+            recordSlice(this.currentPage);
+        } else if (this.pageLayout.isThermalPaper()) {
+            fitPageToContent(this.currentPage);
+        } else {
+            this.contentStream.writeTo(pageStore(), this.currentPage, 0f);
+            if (!this.textCursor.hasPaintedContent()) {
+                this.blankPages.add(this.currentPage);
+            }
+        }
+        this.currentPage = null;
+    }
 
-        return out.toByteArray();
+    private void recordSlice(PDPage page) throws IOException {
+        this.contentStream.writeTo(pageStore(), page, 0f);
+        float top = this.pageLayout.getStartY();
+        float height = this.textCursor.getWrittenHeight();
+        if (height > 0f || this.textCursor.hasPaintedContent()) {
+            this.recordedSlices.add(new FragmentSlice(EncodedForm.capture(page), top, height,
+                    top - this.textCursor.getLowestY(), this.textCursor.hasPaintedContent(), this.pageLift));
+        }
     }
 
-    private static boolean isPageBlank(PDDocument document, PDPage page) throws IOException {
-        PDFTextStripper textStripper = new PDFTextStripper();
-        textStripper.setStartPage(document.getPages().indexOf(page) + 1);
-        textStripper.setEndPage(document.getPages().indexOf(page) + 1);
+    private void fitPageToContent(PDPage page) throws IOException {
+        float pageHeight = this.pageSize.getHeight();
+        float contentHeight = pageHeight - this.textCursor.getLowestY() + this.pageLayout.getMarginBottom();
+        if (contentHeight >= pageHeight) {
+            this.contentStream.writeTo(pageStore(), page, 0f);
+            return;
+        }
 
-        String pageText = textStripper.getText(document).trim();
+        this.contentStream.writeTo(pageStore(), page, contentHeight - pageHeight);
+        page.setMediaBox(new PDRectangle(this.pageSize.getWidth(), contentHeight));
+    }
 
-        return pageText.isEmpty();
+    private PageStore pageStore() throws IOException {
+        if (this.pageStore == null) {
+            this.pageStore = new PageStore(this.pageMemoryUsage);
+        }
+        return this.pageStore;
+    }
+
+    private void removeBlankPages() {
+        PDPageTree pages = this.document.getPages();
+        for (PDPage page : this.blankPages) {
+            pages.remove(page);
+        }
+        this.blankPages.clear();
     }
 
     public void close() throws IOException {
-        if (this.contentStream != null) {
-            this.textCursor.closeTextObject();
-            this.contentStream.close();
+        if (this.currentPage != null) {
+            this.textCursor.detach();
+            this.contentStream.discard();
+            this.currentPage = null;
         }
-        if (!isClosed()) {
-            this.document.close();
+        try {
+            if (!isClosed()) {
+                this.document.close();
+            }
+        } finally {
+            releaseBuffers();
         }
     }
 
+    /**
+     * Hands the content stream writer back to the pool, or frees its compression state, and drops the
+     * stored page content once the document is done. Later writes fail instead of reaching a buffer
+     * another document may own.
+     */
+    private void releaseBuffers() throws IOException {
+        if (this.contentStream == null) {
+            return;
+        }
+        this.textCursor.detach();
+        if (this.pool != null) {
+            this.pool.releaseContentStream(this.contentStream);
+        } else {
+            this.contentStream.release();
+        }
+        this.contentStream = null;
+        if (this.pageStore != null) {
+            PageStore pageStore = this.pageStore;
+            this.pageStore = null;
+            pageStore.close();
+        }
+    }
+
+    /**
+     * @return registry holding the images embedded so far, along with its hit/miss counts
+     */
+    public ImageRegistry getImageRegistry() {
+        return this.imageRegistry;
+    }
+
     public boolean isClosed() {
         return this.document.getDocument().isClosed();
     }
+
+    /**
+     * Shields caller-owned sinks from the {@code close()} PDFBox issues once saving completes.
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+        private NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
 }
@@ -0,0 +1,196 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.cos.COSBase;
+import org.apache.pdfbox.cos.COSInputStream;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.filter.DecodeOptions;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.io.ScratchFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+
+/**
+ * Holds the encoded content of finished pages until the document is saved, outside the document's
+ * scratch buffer, which would keep at least a 4 KB page of heap per stream. The content is kept as
+ * an exact-size array, or appended to a temporary file when the memory usage setting allows temp
+ * files, so a finished page only leaves its dictionaries on the heap.
+ */
+final class PageStore implements Closeable {
+    private static final long FALLBACK_MAIN_MEMORY = 1L << 20;
+
+    private final boolean spill;
+    private final File directory;
+    // backs streams rewritten or decoded through the regular COSStream API, which rarely happens
+    private final ScratchFile scratchFile;
+    private File path;
+    private RandomAccessFile file;
+    private long end;
+
+    /**
+     * @param memoryUsage memory usage setting of the document, or {@code null} to keep pages in memory
+     */
+    PageStore(MemoryUsageSetting memoryUsage) throws IOException {
+        this.spill = memoryUsage != null && memoryUsage.useTempFile();
+        this.directory = memoryUsage != null ? memoryUsage.getTempDir() : null;
+        this.scratchFile = new ScratchFile(MemoryUsageSetting.setupMixed(FALLBACK_MAIN_MEMORY).setTempDir(this.directory));
+    }
+
+    /**
+     * Keeps a copy of the encoded bytes as the raw data of a new stream.
+     *
+     * @param encoded encoded stream data
+     * @param length  number of bytes used in {@code encoded}
+     * @return stream reading the stored bytes
+     * @throws IOException when the temporary file cannot be written
+     */
+    COSStream store(byte[] encoded, int length) throws IOException {
+        if (!this.spill) {
+            return new StoredStream(this, Arrays.copyOf(encoded, length), 0L, length);
+        }
+
+        if (this.file == null) {
+            this.path = File.createTempFile("pdf-quill-pages-", ".tmp", this.directory);
+            this.file = new RandomAccessFile(this.path, "rw");
+        }
+        long offset = this.end;
+        this.file.seek(offset);
+        this.file.write(encoded, 0, length);
+        this.end += length;
+        return new StoredStream(this, null, offset, length);
+    }
+
+    private InputStream open(long offset, int length) throws IOException {
+        if (this.file == null) {
+            throw new IOException("Page store has been closed");
+        }
+        return new FileRangeInputStream(this.file, offset, length);
+    }
+
+    /**
+     * Deletes the temporary file and drops the streams rewritten through the regular API.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            this.scratchFile.close();
+        } finally {
+            if (this.file != null) {
+                this.file.close();
+                this.file = null;
+                if (!this.path.delete() && this.path.exists()) {
+                    throw new IOException("Failed to delete page store " + this.path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stream whose raw bytes live in the page store until it is rewritten, or decoded, through the
+     * regular API; the bytes then move to the store's scratch buffer and PDFBox handles the rest.
+     */
+    private static final class StoredStream extends COSStream {
+        private final PageStore store;
+        private byte[] data;
+        private final long offset;
+        private final int length;
+        private boolean stored = true;
+
+        private StoredStream(PageStore store, byte[] data, long offset, int length) {
+            super(store.scratchFile);
+            this.store = store;
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+            setInt(COSName.LENGTH, length);
+        }
+
+        @Override
+        public InputStream createRawInputStream() throws IOException {
+            if (!this.stored) {
+                return super.createRawInputStream();
+            }
+            return this.data != null ? new ByteArrayInputStream(this.data) : this.store.open(this.offset, this.length);
+        }
+
+        @Override
+        public COSInputStream createInputStream(DecodeOptions options) throws IOException {
+            if (this.stored) {
+                byte[] raw;
+                try (InputStream in = createRawInputStream()) {
+                    raw = IOUtils.toByteArray(in);
+                }
+                try (OutputStream out = createRawOutputStream()) {
+                    out.write(raw);
+                }
+            }
+            return super.createInputStream(options);
+        }
+
+        @Override
+        public OutputStream createRawOutputStream() throws IOException {
+            release();
+            return super.createRawOutputStream();
+        }
+
+        @Override
+        public OutputStream createOutputStream(COSBase filters) throws IOException {
+            release();
+            return super.createOutputStream(filters);
+        }
+
+        private void release() {
+            this.stored = false;
+            this.data = null;
+        }
+    }
+
+    /**
+     * Reads a range of the shared temporary file, seeking before every read since the file is shared
+     * by all the streams of the document.
+     */
+    private static final class FileRangeInputStream extends InputStream {
+        private final RandomAccessFile file;
+        private long position;
+        private long remaining;
+
+        private FileRangeInputStream(RandomAccessFile file, long offset, int length) {
+            this.file = file;
+            this.position = offset;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (this.remaining == 0) {
+                return -1;
+            }
+            this.file.seek(this.position);
+            int read = this.file.read(b, off, (int) Math.min(len, this.remaining));
+            if (read > 0) {
+                this.position += read;
+                this.remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, this.remaining);
+        }
+    }
+}
@@ -1,19 +1,20 @@
 package org.pdfquill.writer;
 
-import org.apache.pdfbox.pdmodel.PDPageContentStream;
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
-import org.apache.pdfbox.util.Matrix;
+import org.pdfquill.settings.font.FontMetrics;
 
 import java.io.IOException;
 
 /**
- * Tracks the current text position within a {@link PDPageContentStream}, taking care of the
- * transformation matrix and the text object lifecycle so callers do not need to juggle
- * repeated begin/end calls.
+ * Tracks the current text position within a {@link ContentStreamWriter}, taking care of the
+ * text object lifecycle so callers do not need to juggle repeated begin/end calls. A single text
+ * object stays open until another kind of drawing needs the page; inside it the cursor moves with
+ * relative {@code Td}/{@code T*} operators and only emits {@code Tf} when the font or size changes.
  */
 public final class TextCursor {
-    private PDPageContentStream contentStream;
-    private Matrix textMatrix = Matrix.getTranslateInstance(0, 0);
+    private static final float LEADING_TOLERANCE = 0.001f;
+
+    private ContentStreamWriter contentStream;
 
     private float startX;
     private float startY;
@@ -22,18 +23,32 @@ public final class TextCursor {
     private float writtenHeight;
 
     private boolean textObjectOpen = false;
+    // origin of the current text line; reset to (0, 0) by every BT
+    private float lineX;
+    private float lineY;
+    private float leading;
+    private PDType1Font currentFont;
+    private FontMetrics currentMetrics;
+    private int currentFontSize;
+    private boolean painted = false;
+    private float lowestY;
 
     /**
      * Binds the cursor to a new page content stream and resets the writing origin.
      */
-    public void bindToContentStream(PDPageContentStream contentStream, float startX, float startY) throws IOException {
+    public void bindToContentStream(ContentStreamWriter contentStream, float startX, float startY) throws IOException {
         closeTextObject();
         this.contentStream = contentStream;
         this.startX = startX;
         this.startY = startY;
         resetProgress();
-        this.textMatrix = Matrix.getTranslateInstance(startX, startY);
         this.textObjectOpen = false;
+        this.leading = 0f;
+        this.currentFont = null;
+        this.currentMetrics = null;
+        this.currentFontSize = 0;
+        this.painted = false;
+        this.lowestY = startY;
     }
 
     /**
@@ -69,6 +84,44 @@ public final class TextCursor {
         return this.currentY;
     }
 
+    /**
+     * Records that something visible was drawn on the bound page outside the cursor, e.g. an image.
+     *
+     * @param bottomY lowest y coordinate touched by the drawing
+     */
+    public void markPainted(float bottomY) {
+        this.painted = true;
+        markReached(bottomY);
+    }
+
+    /**
+     * Records that content drawn outside the cursor reaches down to the given y coordinate, without
+     * counting it as visible.
+     *
+     * @param bottomY lowest y coordinate touched by the content
+     */
+    public void markReached(float bottomY) {
+        if (bottomY < this.lowestY) {
+            this.lowestY = bottomY;
+        }
+    }
+
+    /**
+     * Returns the lowest baseline or graphic edge placed on the bound page, which tells how far down
+     * the page the content reaches.
+     */
+    public float getLowestY() {
+        return this.lowestY;
+    }
+
+    /**
+     * Returns whether any visible glyph or graphic was emitted since the cursor was last bound,
+     * letting callers detect blank pages without extracting their text.
+     */
+    public boolean hasPaintedContent() {
+        return this.painted;
+    }
+
     private void ensureTextObject() throws IOException {
         if (this.contentStream == null) {
             throw new IllegalStateException("No content stream bound to cursor");
@@ -76,18 +129,38 @@ public final class TextCursor {
         if (!this.textObjectOpen) {
             this.contentStream.beginText();
             this.textObjectOpen = true;
+            this.lineX = 0f;
+            this.lineY = 0f;
         }
     }
 
     /**
-     * Moves the text matrix to an absolute coordinate.
+     * Moves the cursor to an absolute coordinate, expressed as a move relative to the start of the
+     * current text line.
      */
     public void moveTo(float x, float y) throws IOException {
         ensureTextObject();
         this.currentX = x;
         this.currentY = y;
-        this.textMatrix = Matrix.getTranslateInstance(x, y);
-        this.contentStream.setTextMatrix(this.textMatrix);
+        if (y < this.lowestY) {
+            this.lowestY = y;
+        }
+
+        float dx = x - this.lineX;
+        float dy = y - this.lineY;
+        if (dx == 0f && dy < 0f) {
+            // line origins follow what a reader computes, so rounding never accumulates across T*
+            if (Math.abs(dy + this.leading) > LEADING_TOLERANCE) {
+                this.leading = -dy;
+                this.contentStream.setLeading(this.leading);
+            }
+            this.contentStream.newLine();
+            this.lineY -= this.leading;
+        } else if (dx != 0f || dy != 0f) {
+            this.contentStream.newLineAtOffset(dx, dy);
+            this.lineX = x;
+            this.lineY = y;
+        }
     }
 
     /**
@@ -98,8 +171,25 @@ public final class TextCursor {
             return;
         }
         ensureTextObject();
-        this.contentStream.setFont(font, fontSize);
-        this.contentStream.showText(text);
+        if (font != this.currentFont || fontSize != this.currentFontSize) {
+            this.contentStream.setFont(font, fontSize);
+            this.currentFont = font;
+            this.currentMetrics = FontMetrics.of(font);
+            this.currentFontSize = fontSize;
+        }
+        this.contentStream.showText(text, this.currentMetrics);
+        if (!this.painted && !isBlank(text)) {
+            this.painted = true;
+        }
+    }
+
+    private static boolean isBlank(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!Character.isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
@@ -0,0 +1,155 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.pdfquill.settings.CompressionProfile;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayDeque;
+
+/**
+ * Thread-safe pool recycling the buffers of finished documents for the next documents written with
+ * the same compression: the content stream writer, with its operator buffer and deflater, and the
+ * buffer the PDF is saved into. Buffers that grew past {@value #MAX_RETAINED_BYTES} bytes are dropped
+ * instead of being kept for small documents.
+ * <p>
+ * Pooled documents are also opened with a bounded scratch buffer by default. PDFBox otherwise reserves
+ * a page table for 400 MB of streams in every new document, which costs more than writing a short
+ * receipt; streams beyond {@value #SCRATCH_MAIN_MEMORY} bytes are spilled to a temporary file instead.
+ * Finished pages only move to a temporary file when the pool is created with an explicit memory usage
+ * setting, see {@link PDFWriter#PDFWriter(org.pdfquill.settings.PageLayout, CompressionProfile, boolean,
+ * MemoryUsageSetting)}.
+ */
+public final class WriterPool {
+    /**
+     * Largest buffer kept for reuse, in bytes.
+     */
+    public static final int MAX_RETAINED_BYTES = 1 << 20;
+
+    /**
+     * Stream bytes a pooled document keeps in memory before spilling to a temporary file.
+     */
+    public static final long SCRATCH_MAIN_MEMORY = 16L << 20;
+
+    private final CompressionProfile compression;
+    private final int capacity;
+    private final MemoryUsageSetting memoryUsage;
+    private final MemoryUsageSetting pageMemoryUsage;
+    private final ArrayDeque<ContentStreamWriter> contentStreams = new ArrayDeque<>();
+    private final ArrayDeque<OutputBuffer> outputs = new ArrayDeque<>();
+
+    /**
+     * Creates a pool keeping up to {@code capacity} idle buffers of each kind.
+     *
+     * @param compression compression applied by the pooled content stream writers
+     * @param capacity    number of idle buffers of each kind kept, usually the number of documents
+     *                    written at the same time
+     */
+    public WriterPool(CompressionProfile compression, int capacity) {
+        this(compression, capacity, MemoryUsageSetting.setupMixed(SCRATCH_MAIN_MEMORY), null);
+    }
+
+    /**
+     * Creates a pool keeping up to {@code capacity} idle buffers of each kind, whose documents buffer
+     * their streams, and finished pages, as the memory usage setting allows.
+     *
+     * @param compression compression applied by the pooled content stream writers
+     * @param capacity    number of idle buffers of each kind kept
+     * @param memoryUsage PDFBox memory usage setting of the pooled documents
+     */
+    public WriterPool(CompressionProfile compression, int capacity, MemoryUsageSetting memoryUsage) {
+        this(compression, capacity, memoryUsage, memoryUsage);
+    }
+
+    private WriterPool(CompressionProfile compression, int capacity, MemoryUsageSetting memoryUsage,
+                       MemoryUsageSetting pageMemoryUsage) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression profile cannot be null");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must be zero or positive");
+        }
+        if (memoryUsage == null) {
+            throw new IllegalArgumentException("Memory usage setting cannot be null");
+        }
+        this.compression = compression;
+        this.capacity = capacity;
+        this.memoryUsage = memoryUsage;
+        this.pageMemoryUsage = pageMemoryUsage;
+    }
+
+    /**
+     * @return compression applied by the pooled content stream writers
+     */
+    public CompressionProfile getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * @return PDFBox memory usage setting of the pooled documents
+     */
+    public MemoryUsageSetting getMemoryUsage() {
+        return this.memoryUsage;
+    }
+
+    /**
+     * @return memory usage setting deciding where finished pages are kept, or {@code null} to keep them
+     * in memory
+     */
+    MemoryUsageSetting getPageMemoryUsage() {
+        return this.pageMemoryUsage;
+    }
+
+    /**
+     * @return number of idle content stream writers ready for the next document
+     */
+    public synchronized int getIdleCount() {
+        return this.contentStreams.size();
+    }
+
+    synchronized ContentStreamWriter acquireContentStream() {
+        ContentStreamWriter contentStream = this.contentStreams.pollFirst();
+        return contentStream != null ? contentStream : new ContentStreamWriter(this.compression);
+    }
+
+    void releaseContentStream(ContentStreamWriter contentStream) {
+        contentStream.discard();
+        if (contentStream.capacity() <= MAX_RETAINED_BYTES) {
+            synchronized (this) {
+                if (this.contentStreams.size() < this.capacity) {
+                    this.contentStreams.addFirst(contentStream);
+                    return;
+                }
+            }
+        }
+        contentStream.release();
+    }
+
+    synchronized OutputBuffer acquireOutput() {
+        OutputBuffer output = this.outputs.pollFirst();
+        return output != null ? output : new OutputBuffer();
+    }
+
+    void releaseOutput(OutputBuffer output) {
+        output.reset();
+        if (output.capacity() <= MAX_RETAINED_BYTES) {
+            synchronized (this) {
+                if (this.outputs.size() < this.capacity) {
+                    this.outputs.addFirst(output);
+                }
+            }
+        }
+    }
+
+    /**
+     * Byte buffer exposing how much memory it holds.
+     */
+    static final class OutputBuffer extends ByteArrayOutputStream {
+        OutputBuffer() {
+            super(8192);
+        }
+
+        int capacity() {
+            return this.buf.length;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.pdfquill;
+
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.PageLayout;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedMemoryTest {
+    private static final int PAGES = 10_000;
+    private static final String MAX_HEAP = "-Xmx24m";
+
+    @Test
+    void tenThousandPageReportRendersInASmallFixedHeap(@TempDir Path directory) throws Exception {
+        Path scratch = Files.createDirectory(directory.resolve("scratch"));
+        Path report = directory.resolve("report.pdf");
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), MAX_HEAP, "-cp", System.getProperty("java.class.path"),
+                BoundedMemoryTest.class.getName(), scratch.toString(), report.toString())
+                .redirectErrorStream(true)
+                .start();
+        String output = readAll(process.getInputStream());
+
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        try (Stream<Path> leftovers = Files.list(scratch)) {
+            assertThat(leftovers).isEmpty();
+        }
+        try (PDDocument document = PDDocument.load(report.toFile(), MemoryUsageSetting.setupTempFileOnly())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(PAGES);
+            stripper.setEndPage(PAGES);
+            assertThat(document.getNumberOfPages()).isEqualTo(PAGES);
+            assertThat(stripper.getText(document)).contains("Statement line " + (PAGES * linesPerPage() - 1) + " ");
+        }
+    }
+
+    @Test
+    void memoryUsageSettingNeedsAnExistingTempDirectory(@TempDir Path directory) {
+        File missing = directory.resolve("missing").toFile();
+
+        assertThatThrownBy(() -> PDFQuill.builder()
+                .withMemoryUsageSetting(MemoryUsageSetting.setupMixed(1L << 20).setTempDir(missing)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing");
+    }
+
+    /**
+     * Renders the report in the forked JVM.
+     *
+     * @param args scratch directory and destination file
+     */
+    public static void main(String[] args) throws Exception {
+        PDFQuill printer = PDFQuill.builder()
+                .withPaperType(PaperType.A4)
+                .withMemoryUsageSetting(MemoryUsageSetting.setupMixed(4L << 20).setTempDir(new File(args[0])))
+                .build();
+        for (int i = 0; i < PAGES * linesPerPage(); i++) {
+            printer.printLine("Statement line " + i + " | 2024-01-01 | Payment received ......... " + (i * 3.7f));
+        }
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Paths.get(args[1])))) {
+            printer.writeTo(out);
+        }
+    }
+
+    private static int linesPerPage() {
+        PageLayout layout = new PageLayout(PaperType.A4);
+        return (int) (layout.getPageWritingHeight() / layout.getLineHeight());
+    }
+
+    static String readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int read; (read = in.read(buffer)) != -1; ) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,106 @@
+package org.pdfquill;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.barcode.BarcodeRenderMode;
+import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.CompressionProfile;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Produces the compression profile table of the README: output size and the best time of
+ * {@value #RUNS} runs of build, print and {@link PDFQuill#getPDFBytes()} for a receipt (60 lines and
+ * a raster QR code on {@code THERMAL_80MM}) and a report (an 800x500 RGB image and 600 lines on
+ * {@code A4}). Run with {@code mvn test -Pbenchmark}.
+ * <p>
+ * The table is reported on standard output, the reporting channel of the {@code benchmark} profile.
+ */
+@Tag("benchmark")
+class CompressionProfileBenchmarkTest {
+    private static final int RUNS = 25;
+
+    @Test
+    void sizeAndTimePerProfile() throws Exception {
+        BufferedImage photo = photo();
+        StringBuilder table = new StringBuilder()
+                .append("| Profile | Receipt (bytes) | Receipt (ms) | Report (bytes) | Report (ms) |\n")
+                .append("|---|---:|---:|---:|---:|\n");
+        // warm up every profile so the first one is not timed on a cold JIT
+        for (int run = 0; run < RUNS; run++) {
+            for (CompressionProfile profile : CompressionProfile.values()) {
+                receipt(profile);
+                report(profile, photo);
+            }
+        }
+
+        for (CompressionProfile profile : CompressionProfile.values()) {
+            int receiptBytes = 0;
+            int reportBytes = 0;
+            double receiptMillis = Double.MAX_VALUE;
+            double reportMillis = Double.MAX_VALUE;
+            for (int run = 0; run < RUNS; run++) {
+                long start = System.nanoTime();
+                receiptBytes = receipt(profile).length;
+                receiptMillis = Math.min(receiptMillis, (System.nanoTime() - start) / 1e6);
+
+                start = System.nanoTime();
+                reportBytes = report(profile, photo).length;
+                reportMillis = Math.min(reportMillis, (System.nanoTime() - start) / 1e6);
+            }
+
+            assertThat(receiptBytes).isPositive();
+            table.append(String.format("| `%s` | %,d | %.1f | %,d | %.0f |%n",
+                    profile, receiptBytes, receiptMillis, reportBytes, reportMillis));
+        }
+        System.out.print(table);
+    }
+
+    private static byte[] receipt(CompressionProfile profile) {
+        PDFQuill printer = PDFQuill.builder()
+                .withPaperType(PaperType.THERMAL_80MM)
+                .withCompressionProfile(profile)
+                .withBarcodeRenderMode(BarcodeRenderMode.RASTER)
+                .build();
+        for (int i = 0; i < 60; i++) {
+            printer.printLine((i + 1) + "x Item " + i + " ........ " + (i * 1.25f));
+        }
+        printer.printBarcode("https://example.com/receipt/000123456", BarcodeType.QRCODE);
+        return printer.getPDFBytes();
+    }
+
+    private static byte[] report(CompressionProfile profile, BufferedImage photo) throws IOException {
+        PDFQuill printer = PDFQuill.builder()
+                .withPaperType(PaperType.A4)
+                .withCompressionProfile(profile)
+                .build();
+        printer.printImage(photo);
+        for (int i = 0; i < 600; i++) {
+            printer.printLine("Statement line " + i + " | 2024-01-01 | Payment received ......... " + (i * 3.7f));
+        }
+        return printer.getPDFBytes();
+    }
+
+    /**
+     * Smooth gradients with mild noise, compressing roughly like a photograph.
+     */
+    private static BufferedImage photo() {
+        BufferedImage image = new BufferedImage(800, 500, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int y = 0; y < 500; y++) {
+            for (int x = 0; x < 800; x++) {
+                int noise = random.nextInt(8);
+                int r = (x * 255 / 800 + noise) & 0xFF;
+                int g = (y * 255 / 500 + noise) & 0xFF;
+                int b = ((x + y) * 255 / 1300 + noise) & 0xFF;
+                image.setRGB(x, y, r << 16 | g << 8 | b);
+            }
+        }
+        return image;
+    }
+}
@@ -0,0 +1,97 @@
+package org.pdfquill;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.exceptions.PrinterException;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.font.FontType;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentTemplateTest {
+    private static final BufferedImage LOGO = logo();
+
+    @Test
+    void renderMatchesAFullRebuild() throws Exception {
+        DocumentTemplate template = receiptTemplate();
+
+        for (int receipt = 0; receipt < 3; receipt++) {
+            Map<String, String> values = values(receipt);
+            PDFQuill rebuilt = PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM).build();
+            printHeader(rebuilt);
+            for (String item : values.get("items").split("\n")) {
+                rebuilt.printLine(item);
+            }
+            rebuilt.printLine("------------------------");
+            rebuilt.printLine(values.get("total"), FontType.BOLD);
+            rebuilt.printBarcode(values.get("code"), BarcodeType.QRCODE);
+
+            try (PDDocument expected = PDDocument.load(rebuilt.getPDFBytes());
+                 PDDocument actual = PDDocument.load(template.render(values).getPDFBytes())) {
+                assertThat(new PDFTextStripper().getText(actual)).isEqualTo(new PDFTextStripper().getText(expected));
+                assertThat(actual.getPage(0).getMediaBox().getHeight())
+                        .isEqualTo(expected.getPage(0).getMediaBox().getHeight());
+                // the header and the separator are stamped, the logo lives inside the header form
+                assertThat(actual.getPage(0).getResources().getXObjectNames()).hasSize(2);
+            }
+        }
+    }
+
+    @Test
+    void slotsAreListedAndRequired() {
+        DocumentTemplate template = receiptTemplate();
+        Map<String, String> values = values(0);
+        values.remove("total");
+
+        assertThat(template.getSlotNames()).containsExactly("items", "total", "code");
+        assertThatThrownBy(() -> template.render(values))
+                .isInstanceOf(PrinterException.class)
+                .hasMessageContaining("'total'");
+    }
+
+    private static DocumentTemplate receiptTemplate() {
+        return DocumentTemplate.builder()
+                .fixed(DocumentTemplateTest::printHeader)
+                .lines("items")
+                .fixed(printer -> printer.printLine("------------------------"))
+                .line("total", FontType.BOLD)
+                .barcode("code", BarcodeType.QRCODE)
+                .compile(PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM));
+    }
+
+    private static void printHeader(PDFQuill printer) throws java.io.IOException {
+        printer.printImage(LOGO);
+        printer.printLine("PDF QUILL STORE", FontType.BOLD)
+                .printLine("221B Baker Street, London")
+                .printLine("VAT GB 123 4567 89");
+    }
+
+    private static Map<String, String> values(int receipt) {
+        StringBuilder items = new StringBuilder();
+        for (int i = 0; i <= receipt * 4; i++) {
+            items.append(i > 0 ? "\n" : "").append(i + 1).append("x Item ").append(receipt).append('-').append(i);
+        }
+        Map<String, String> values = new HashMap<>();
+        values.put("items", items.toString());
+        values.put("total", "TOTAL " + (receipt * 12.5f));
+        values.put("code", "https://example.com/r/" + receipt);
+        return values;
+    }
+
+    private static BufferedImage logo() {
+        BufferedImage image = new BufferedImage(120, 40, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 40; y++) {
+            for (int x = 0; x < 120; x++) {
+                image.setRGB(x, y, (x * y) % 7 == 0 ? 0x000000 : 0xFFFFFF);
+            }
+        }
+        return image;
+    }
+}
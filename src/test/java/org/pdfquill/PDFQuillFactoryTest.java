@@ -0,0 +1,96 @@
+package org.pdfquill;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.exceptions.PrinterException;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.font.FontType;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PDFQuillFactoryTest {
+
+    @Test
+    void printersMatchPrintersBuiltDirectly() throws Exception {
+        PDFQuill.Builder builder = PDFQuill.builder()
+                .withPaperType(PaperType.THERMAL_80MM)
+                .withMargins(8f, 8f, 12f, 12f)
+                .configureFontSettings(fontSettings -> fontSettings.setFontSize(10));
+        PDFQuillFactory factory = builder.buildFactory();
+
+        for (int receipt = 0; receipt < 3; receipt++) {
+            try (PDDocument expected = PDDocument.load(print(builder.build(), receipt));
+                 PDDocument actual = PDDocument.load(print(factory.newPrinter(), receipt))) {
+                assertThat(new PDFTextStripper().getText(actual)).isEqualTo(new PDFTextStripper().getText(expected));
+                assertThat(actual.getPage(0).getMediaBox().getHeight())
+                        .isEqualTo(expected.getPage(0).getMediaBox().getHeight());
+            }
+        }
+    }
+
+    @Test
+    void buffersReturnToThePoolOnceTheOutputIsTaken() {
+        PDFQuillFactory factory = PDFQuill.builder().buildFactory();
+        PDFQuill first = factory.newPrinter();
+        PDFQuill second = factory.newPrinter();
+        assertThat(factory.getWriterPool().getIdleCount()).isZero();
+
+        first.printLine("first").getPDFBytes();
+        second.printLine("second").close();
+        assertThat(factory.getWriterPool().getIdleCount()).isEqualTo(2);
+
+        factory.newPrinter();
+        assertThat(factory.getWriterPool().getIdleCount()).isEqualTo(1);
+        assertThatThrownBy(() -> first.printLine("too late"))
+                .isInstanceOf(PrinterException.class);
+    }
+
+    @Test
+    void defaultPrintersKeepFinishedPagesInMemory(@TempDir Path directory) throws Exception {
+        // any temp file would fail in the forked JVM, whose temp directory does not exist
+        Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(java.toString(), "-Djava.io.tmpdir=" + directory.resolve("missing"),
+                "-cp", System.getProperty("java.class.path"), PDFQuillFactoryTest.class.getName())
+                .redirectErrorStream(true)
+                .start();
+        String output = BoundedMemoryTest.readAll(process.getInputStream());
+
+        assertThat(process.waitFor(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+    }
+
+    /**
+     * Renders multi-page documents from a default factory in the forked JVM.
+     */
+    public static void main(String[] args) throws Exception {
+        PDFQuillFactory factory = PDFQuill.builder().withPaperType(PaperType.A4).buildFactory();
+        for (int document = 0; document < 3; document++) {
+            PDFQuill printer = factory.newPrinter();
+            for (int i = 0; i < 200; i++) {
+                printer.printLine("Line " + i + " of document " + document);
+            }
+            try (PDDocument rendered = PDDocument.load(printer.getPDFBytes())) {
+                if (rendered.getNumberOfPages() < 2) {
+                    throw new IllegalStateException("Expected several pages");
+                }
+            }
+        }
+    }
+
+    private static byte[] print(PDFQuill printer, int receipt) {
+        printer.printLine("PDF QUILL STORE", FontType.BOLD);
+        for (int i = 0; i <= receipt * 5; i++) {
+            printer.printLine((i + 1) + "x Item " + receipt + "-" + i);
+        }
+        printer.printBarcode("https://example.com/r/" + receipt, BarcodeType.QRCODE);
+        return printer.getPDFBytes();
+    }
+}
@@ -1,19 +1,53 @@
 package org.pdfquill;
 
+import org.apache.pdfbox.contentstream.operator.Operator;
+import org.apache.pdfbox.cos.COSNumber;
+import org.apache.pdfbox.io.IOUtils;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.pdfparser.PDFStreamParser;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.pdfquill.barcode.Barcode;
+import org.pdfquill.barcode.BarcodeCache;
+import org.pdfquill.barcode.BarcodeRenderMode;
+import org.pdfquill.barcode.BarcodeRequest;
+import org.pdfquill.barcode.BarcodeType;
 import org.pdfquill.exceptions.PrinterException;
+import org.pdfquill.image.ImageCache;
 import org.pdfquill.paper.PaperType;
 import org.pdfquill.settings.font.FontSettings;
 import org.pdfquill.settings.font.FontType;
 import org.pdfquill.settings.PageLayout;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -51,22 +85,15 @@ class PDFQuillTest {
     }
 
     @Test
-    void getPDFBytesReturnsCopyAndMatchesBase64() throws Exception {
+    void getPDFBytesReturnsTheCachedOutputAndMatchesBase64() throws Exception {
         PDFQuill quill = new PDFQuill();
         quill.printLine("Bytes test");
 
         byte[] bytes = quill.getPDFBytes();
-        byte[] original = bytes.clone();
 
         String base64 = quill.getBase64PDFBytes();
         assertThat(bytes).isEqualTo(Base64.getDecoder().decode(base64));
-
-        if (bytes.length > 0) {
-            bytes[0] ^= 0xFF;
-        }
-
-        byte[] secondCall = quill.getPDFBytes();
-        assertThat(secondCall).isEqualTo(original);
+        assertThat(quill.getPDFBytes()).isSameAs(bytes);
     }
 
     @Test
@@ -93,6 +120,421 @@ class PDFQuillTest {
         }
     }
 
+    @Test
+    void writeToStreamsPdfAndLeavesSinkOpen() throws Exception {
+        PDFQuill quill = new PDFQuill();
+        quill.printLine("Streamed");
+
+        final boolean[] closed = {false};
+        ByteArrayOutputStream sink = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        quill.writeTo(sink);
+
+        assertThat(closed[0]).isFalse();
+        try (PDDocument document = PDDocument.load(sink.toByteArray())) {
+            assertThat(new PDFTextStripper().getText(document)).contains("Streamed");
+        }
+        assertThatThrownBy(quill::getPDFBytes)
+                .isInstanceOf(PrinterException.class)
+                .hasMessageContaining("not available");
+    }
+
+    @Test
+    void writeToChannelReusesBytesAlreadyResolved() throws Exception {
+        PDFQuill quill = new PDFQuill();
+        quill.printLine("Channel");
+
+        byte[] bytes = quill.getPDFBytes();
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        quill.writeTo(Channels.newChannel(sink));
+
+        assertThat(sink.toByteArray()).isEqualTo(bytes);
+    }
+
+    @Test
+    void registeredImagePrintsInLaterDocuments() throws Exception {
+        BufferedImage logo = new BufferedImage(16, 16, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(logo, "png", png);
+
+        ImageCache cache = new ImageCache(1024 * 1024);
+        PDFQuill.builder().withImageCache(cache).build().registerImage("logo", png.toByteArray());
+
+        PDFQuill quill = PDFQuill.builder().withImageCache(cache).build();
+        quill.printImage("logo");
+        quill.printImage("logo");
+
+        try (PDDocument document = PDDocument.load(quill.getPDFBytes())) {
+            assertThat(document.getPage(0).getResources().getXObjectNames()).hasSize(1);
+        }
+        assertThatThrownBy(() -> quill.printImage("missing"))
+                .isInstanceOf(PrinterException.class)
+                .hasMessageContaining("missing");
+    }
+
+    @Test
+    void printBarcodeDrawsVectorRectanglesByDefault() throws Exception {
+        PDFQuill quill = PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM).build();
+        quill.printBarcode("123456789012", BarcodeType.CODE128);
+
+        try (PDDocument document = PDDocument.load(quill.getPDFBytes())) {
+            assertThat(document.getPage(0).getResources().getXObjectNames()).isEmpty();
+            String content = new String(IOUtils.toByteArray(document.getPage(0).getContents()), StandardCharsets.US_ASCII);
+            assertThat(content).contains(" re").contains("f\n");
+        }
+    }
+
+    @Test
+    void printBarcodeInRasterModeEmbedsAnImage() throws Exception {
+        PDFQuill quill = PDFQuill.builder().withBarcodeRenderMode(BarcodeRenderMode.RASTER).build();
+        quill.printBarcode("HELLO", BarcodeType.QRCODE);
+
+        try (PDDocument document = PDDocument.load(quill.getPDFBytes())) {
+            PDResources resources = document.getPage(0).getResources();
+            assertThat(resources.getXObjectNames()).hasSize(1);
+            PDImageXObject image = (PDImageXObject) resources.getXObject(resources.getXObjectNames().iterator().next());
+            assertThat(image.getBitsPerComponent()).isEqualTo(1);
+            assertThat(image.getWidth()).isEqualTo(21);
+            assertThat(image.getHeight()).isEqualTo(21);
+        }
+    }
+
+    @Test
+    void moduleSizedBarcodeSpansWholePrinterDotsPerModule() throws Exception {
+        PDFQuill quill = PDFQuill.builder()
+                .withPaperType(PaperType.THERMAL_58MM)
+                .withBarcodeRenderMode(BarcodeRenderMode.RASTER)
+                .build();
+        quill.printBarcode("HELLO", BarcodeType.QRCODE);
+
+        try (PDDocument document = PDDocument.load(quill.getPDFBytes())) {
+            PDFStreamParser parser = new PDFStreamParser(document.getPage(0));
+            parser.parse();
+            List<Object> tokens = parser.getTokens();
+            int cm = tokens.size() - 1;
+            while (!(tokens.get(cm) instanceof Operator) || !"Do".equals(((Operator) tokens.get(cm)).getName())) {
+                cm--;
+            }
+            // the image matrix is set right before its Do operator
+            cm -= 2;
+            float drawnWidth = ((COSNumber) tokens.get(cm - 6)).floatValue();
+            float dots = drawnWidth * 203 / 72f;
+            assertThat(dots).isCloseTo(Math.round(dots), within(1e-3f));
+            assertThat(Math.round(dots) % 21).isZero();
+            assertThat(drawnWidth).isLessThanOrEqualTo(document.getPage(0).getMediaBox().getWidth());
+        }
+    }
+
+    @Test
+    void preparedBarcodesPrintLikeInlineOnes() throws Exception {
+        PDFQuill inline = PDFQuill.builder().withBarcodeCache(new BarcodeCache(16)).build();
+        inline.printBarcode("A-1", BarcodeType.QRCODE).printBarcode("B-2", BarcodeType.CODE128);
+
+        PDFQuill prepared = PDFQuill.builder().withBarcodeCache(new BarcodeCache(16)).build();
+        List<Barcode> barcodes = prepared.prepareBarcodes(Arrays.asList(
+                new BarcodeRequest("A-1", BarcodeType.QRCODE),
+                new BarcodeRequest("B-2", BarcodeType.CODE128)));
+        for (Barcode barcode : barcodes) {
+            prepared.printBarcode(barcode);
+        }
+
+        try (PDDocument expected = PDDocument.load(inline.getPDFBytes());
+             PDDocument actual = PDDocument.load(prepared.getPDFBytes())) {
+            assertThat(IOUtils.toByteArray(actual.getPage(0).getContents()))
+                    .isEqualTo(IOUtils.toByteArray(expected.getPage(0).getContents()));
+        }
+    }
+
+    @Test
+    void compactOutputShrinksReceiptsAndReportsWithoutChangingTheirContent() throws Exception {
+        for (boolean receipt : new boolean[]{true, false}) {
+            byte[] classic = fixture(receipt, false);
+            byte[] compact = fixture(receipt, true);
+
+            try (PDDocument expected = PDDocument.load(classic);
+                 PDDocument actual = PDDocument.load(compact)) {
+                assertThat(actual.getNumberOfPages()).isEqualTo(expected.getNumberOfPages());
+                assertThat(new PDFTextStripper().getText(actual)).isEqualTo(new PDFTextStripper().getText(expected));
+                assertThat(actual.getPage(0).getMediaBox().getHeight())
+                        .isEqualTo(expected.getPage(0).getMediaBox().getHeight());
+            }
+            String text = new String(compact, StandardCharsets.ISO_8859_1);
+            assertThat(text).startsWith("%PDF-1.5").contains("/ObjStm").doesNotContain("\ntrailer");
+            // the page content is identical, so the saving is the per-object and xref table overhead
+            assertThat(compact.length).as(receipt ? "receipt" : "report").isLessThan(classic.length - 200);
+        }
+    }
+
+    private static byte[] fixture(boolean receipt, boolean compactOutput) throws Exception {
+        PDFQuill printer = PDFQuill.builder()
+                .withPaperType(receipt ? PaperType.THERMAL_80MM : PaperType.A4)
+                .compactOutput(compactOutput)
+                .build();
+        int lines = receipt ? 40 : 400;
+        for (int i = 0; i < lines; i++) {
+            printer.printLine(i + " | item " + (1000 + i * 7) + " | " + (i * 31.5f), i % 5 == 0 ? FontType.BOLD : FontType.DEFAULT);
+        }
+        printer.printBarcode("https://example.com/receipt/000123456", BarcodeType.QRCODE);
+        return printer.getPDFBytes();
+    }
+
+    @Test
+    void fragmentPrintsLikeTheRecordedCalls() throws Exception {
+        for (PaperType paperType : new PaperType[]{PaperType.A4, PaperType.THERMAL_80MM}) {
+            PDFQuill template = PDFQuill.builder().withPaperType(paperType).build();
+            CompiledFragment header = template.compileFragment(PDFQuillTest::printHeader);
+
+            PDFQuill inline = PDFQuill.builder().withPaperType(paperType).build();
+            printHeader(inline);
+            inline.printLine("1x Espresso 4.50");
+            PDFQuill stamped = PDFQuill.builder().withPaperType(paperType).build();
+            stamped.printFragment(header).printLine("1x Espresso 4.50");
+
+            try (PDDocument expected = PDDocument.load(inline.getPDFBytes());
+                 PDDocument actual = PDDocument.load(stamped.getPDFBytes())) {
+                assertThat(new PDFTextStripper().getText(actual)).isEqualTo(new PDFTextStripper().getText(expected));
+                assertThat(actual.getPage(0).getMediaBox().getHeight())
+                        .isCloseTo(expected.getPage(0).getMediaBox().getHeight(), within(0.01f));
+                assertThat(actual.getPage(0).getResources().getXObjectNames()).hasSize(1);
+            }
+        }
+    }
+
+    @Test
+    void fragmentStartsANewPageWhenItDoesNotFit() throws Exception {
+        PDFQuill template = PDFQuill.builder().build();
+        CompiledFragment header = template.compileFragment(PDFQuillTest::printHeader);
+        PDFQuill printer = PDFQuill.builder().build();
+        PageLayout layout = new PageLayout(PaperType.A4);
+        int linesLeft = (int) (header.getHeight() / layout.getLineHeight()) - 1;
+        int linesPerPage = (int) (layout.getPageWritingHeight() / layout.getLineHeight());
+        for (int i = 0; i < linesPerPage - linesLeft; i++) {
+            printer.printLine("line " + i);
+        }
+
+        printer.printFragment(header).printFragment(header);
+
+        try (PDDocument document = PDDocument.load(printer.getPDFBytes())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(2);
+            stripper.setEndPage(2);
+            assertThat(document.getNumberOfPages()).isEqualTo(2);
+            assertThat(stripper.getText(document).trim()).startsWith("PDF QUILL STORE");
+            assertThat(document.getPage(1).getResources().getXObjectNames()).hasSize(1);
+        }
+    }
+
+    @Test
+    void fragmentRejectsOtherLayouts() throws Exception {
+        CompiledFragment header = PDFQuill.builder().build().compileFragment(PDFQuillTest::printHeader);
+        PDFQuill narrow = PDFQuill.builder().withPaperType(PaperType.THERMAL_58MM).build();
+
+        assertThatThrownBy(() -> narrow.printFragment(header))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("layout");
+    }
+
+    @Test
+    void renderBatchMatchesSequentialRenderingInInputOrder() throws Exception {
+        BufferedImage logo = new BufferedImage(48, 24, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(logo, "png", png);
+        ImageCache images = new ImageCache(1024 * 1024);
+        BarcodeCache barcodes = new BarcodeCache(64);
+        PDFQuill.builder().withImageCache(images).build().registerImage("logo", png.toByteArray());
+        CompiledFragment header = PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM).build()
+                .compileFragment(PDFQuillTest::printHeader);
+        PDFQuillFactory factory = PDFQuill.builder().withPaperType(PaperType.A4).withImageCache(images).buildFactory();
+        DocumentTemplate template = DocumentTemplate.builder()
+                .fixed(PDFQuillTest::printHeader)
+                .lines("items")
+                .barcode("code", BarcodeType.QRCODE)
+                .compile(PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM));
+
+        List<DocumentSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 240; i++) {
+            int n = i;
+            if (n % 3 == 0) {
+                Map<String, String> values = new HashMap<>();
+                values.put("items", "1x Espresso " + n + "\n2x Croissant " + n);
+                values.put("code", "https://example.com/r/" + n % 7);
+                specs.add(DocumentSpec.of(template, values));
+                continue;
+            }
+            if (n % 6 == 1) {
+                specs.add(DocumentSpec.of(factory, printer -> {
+                    printer.printImage("logo");
+                    for (int line = 0; line <= n % 90; line++) {
+                        printer.printLine("factory " + n + " line " + line);
+                    }
+                }));
+                continue;
+            }
+            PDFQuill.Builder builder = PDFQuill.builder()
+                    .withPaperType(n % 2 == 0 ? PaperType.THERMAL_80MM : PaperType.A4)
+                    .withImageCache(images)
+                    .withBarcodeCache(barcodes)
+                    .withBarcodeRenderMode(n % 4 == 1 ? BarcodeRenderMode.RASTER : BarcodeRenderMode.VECTOR)
+                    .compactOutput(n % 5 == 0);
+            specs.add(DocumentSpec.of(builder, printer -> {
+                if (n % 2 == 0) {
+                    printer.printFragment(header);
+                }
+                printer.printImage("logo");
+                for (int line = 0; line <= n % 60; line++) {
+                    printer.printLine("doc " + n + " line " + line, line % 3 == 0 ? FontType.BOLD : FontType.DEFAULT);
+                }
+                printer.printBarcode("ORDER-" + n % 11, BarcodeType.CODE128);
+            }));
+        }
+
+        List<String> expected = new ArrayList<>();
+        for (DocumentSpec spec : specs) {
+            expected.add(text(spec.render(() -> false)));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int round = 0; round < 3; round++) {
+                List<byte[]> documents = PDFQuill.renderBatch(specs, executor);
+
+                assertThat(documents).hasSize(specs.size());
+                for (int i = 0; i < documents.size(); i++) {
+                    assertThat(text(documents.get(i))).as("document %d", i).isEqualTo(expected.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void renderBatchReportsTheFirstFailure() {
+        List<DocumentSpec> specs = Arrays.asList(
+                DocumentSpec.of(PDFQuill.builder(), printer -> printer.printLine("ok")),
+                DocumentSpec.of(PDFQuill.builder(), printer -> printer.printImage("missing")));
+
+        assertThatThrownBy(() -> PDFQuill.renderBatch(specs))
+                .isInstanceOf(PrinterException.class)
+                .hasMessageContaining("missing");
+        assertThatThrownBy(() -> PDFQuill.renderBatch(null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void renderBatchReportsCancelledDocumentsAsPrinterExceptions() {
+        List<DocumentSpec> specs = Arrays.asList(
+                DocumentSpec.of(PDFQuill.builder(), printer -> {
+                    throw new CancellationException("abandoned");
+                }),
+                DocumentSpec.of(PDFQuill.builder(), printer -> printer.printLine("ok")));
+
+        assertThatThrownBy(() -> PDFQuill.renderBatch(specs, Runnable::run))
+                .isInstanceOf(PrinterException.class)
+                .hasCauseInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_21)
+    void renderAsyncRunsOnVirtualThreads() throws Exception {
+        PDFQuillFactory factory = PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM).buildFactory();
+        List<DocumentSpec> specs = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            int n = i;
+            specs.add(DocumentSpec.of(factory, printer -> {
+                printHeader(printer);
+                printer.printLine("order " + n);
+            }));
+        }
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<byte[]>> documents = new ArrayList<>();
+            List<ByteArrayOutputStream> sinks = new ArrayList<>();
+            List<CompletableFuture<Void>> streamed = new ArrayList<>();
+            for (DocumentSpec spec : specs) {
+                documents.add(PDFQuill.renderAsync(spec, executor));
+                ByteArrayOutputStream sink = new ByteArrayOutputStream();
+                sinks.add(sink);
+                streamed.add(PDFQuill.renderAsync(spec, sink, executor));
+            }
+
+            for (int i = 0; i < specs.size(); i++) {
+                String expected = text(specs.get(i).render(() -> false));
+                streamed.get(i).get(30, TimeUnit.SECONDS);
+                assertThat(text(documents.get(i).get(30, TimeUnit.SECONDS))).isEqualTo(expected);
+                assertThat(text(sinks.get(i).toByteArray())).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    void cancelledRenderingStopsAtTheNextPageAndReleasesItsBuffers() throws Exception {
+        PDFQuillFactory factory = PDFQuill.builder().buildFactory();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicInteger printed = new AtomicInteger();
+        DocumentSpec report = DocumentSpec.of(factory, printer -> {
+            for (int i = 0; i < 5000; i++) {
+                if (i == 10) {
+                    started.countDown();
+                    awaitQuietly(cancelled);
+                }
+                printer.printLine("row " + i);
+                printed.incrementAndGet();
+            }
+        });
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CompletableFuture<byte[]> future = PDFQuill.renderAsync(report, executor);
+        started.await(30, TimeUnit.SECONDS);
+        future.cancel(false);
+        cancelled.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(future).isCancelled();
+        assertThat(printed.get()).isLessThan(200);
+        assertThat(factory.getWriterPool().getIdleCount()).isEqualTo(1);
+    }
+
+    @Test
+    void renderAsyncReportsFailuresThroughTheFuture() {
+        DocumentSpec spec = DocumentSpec.of(PDFQuill.builder(), printer -> printer.printImage("missing"));
+        Executor rejecting = task -> {
+            throw new RejectedExecutionException("full");
+        };
+
+        assertThat(PDFQuill.renderAsync(spec)).failsWithin(30, TimeUnit.SECONDS)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(PrinterException.class);
+        assertThat(PDFQuill.renderAsync(spec, rejecting)).isCompletedExceptionally();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String text(byte[] pdf) throws IOException {
+        try (PDDocument document = PDDocument.load(pdf)) {
+            return document.getNumberOfPages() + "\n" + new PDFTextStripper().getText(document);
+        }
+    }
+
+    private static void printHeader(PDFQuill printer) {
+        printer.printLine("PDF QUILL STORE", FontType.BOLD)
+                .printLine("221B Baker Street, London")
+                .printLine("VAT GB 123 4567 89")
+                .skipLine();
+        printer.printBarcode("STORE-0042", BarcodeType.CODE128);
+    }
+
     @Test
     void builderRejectsNullPaperType() {
         PDFQuill.Builder builder = PDFQuill.builder();
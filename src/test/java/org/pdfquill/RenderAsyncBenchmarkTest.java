@@ -0,0 +1,108 @@
+package org.pdfquill;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.font.FontType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares a platform-thread pool sized to the cores with a virtual thread per document, rendering
+ * receipts with {@link PDFQuill#renderAsync(DocumentSpec, OutputStream, java.util.concurrent.Executor)}
+ * into sinks that are either instant or stall like a slow client connection. Run with
+ * {@code mvn test -Pbenchmark} on JDK 21+.
+ * <p>
+ * Throughput is reported on standard output, which surefire shows in the build log; that is the
+ * reporting channel of every benchmark in the {@code benchmark} profile. The test only asserts that
+ * every document completed, since the figures depend on the machine.
+ */
+@Tag("benchmark")
+class RenderAsyncBenchmarkTest {
+    private static final int DOCUMENTS = 2000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void platformThreadsAgainstVirtualThreads() throws Exception {
+        PDFQuillFactory factory = PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM).buildFactory();
+        DocumentSpec receipt = DocumentSpec.of(factory, RenderAsyncBenchmarkTest::printReceipt);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (long stallMillis : new long[]{0L, 5L}) {
+            double platform = bestOf(() -> Executors.newFixedThreadPool(cores), receipt, stallMillis);
+            double virtual = bestOf(Executors::newVirtualThreadPerTaskExecutor, receipt, stallMillis);
+            System.out.printf("sink stall %d ms, %d cores: platform pool %.0f docs/s, virtual threads %.0f docs/s%n",
+                    stallMillis, cores, platform, virtual);
+        }
+    }
+
+    private static double bestOf(Supplier<ExecutorService> executors, DocumentSpec receipt, long stallMillis) throws Exception {
+        double best = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            ExecutorService executor = executors.get();
+            long start = System.nanoTime();
+            List<CompletableFuture<Void>> futures = new ArrayList<>(DOCUMENTS);
+            for (int i = 0; i < DOCUMENTS; i++) {
+                futures.add(PDFQuill.renderAsync(receipt, new StallingSink(stallMillis), executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            executor.shutdown();
+            assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+            best = Math.max(best, DOCUMENTS / seconds);
+        }
+        return best;
+    }
+
+    private static void printReceipt(PDFQuill printer) {
+        printer.printLine("PDF QUILL STORE", FontType.BOLD)
+                .printLine("221B Baker Street, London");
+        for (int i = 0; i < 20; i++) {
+            printer.printLine((i + 1) + "x Item " + i + " ........ " + (i * 1.25f));
+        }
+        printer.printBarcode("https://example.com/receipt/000123456", BarcodeType.QRCODE);
+    }
+
+    /**
+     * Discards the bytes, blocking once on flush as a client on a slow connection would.
+     */
+    private static final class StallingSink extends OutputStream {
+        private final long stallMillis;
+
+        private StallingSink(long stallMillis) {
+            this.stallMillis = stallMillis;
+        }
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (this.stallMillis == 0L) {
+                return;
+            }
+            try {
+                Thread.sleep(this.stallMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while flushing", e);
+            }
+        }
+    }
+}
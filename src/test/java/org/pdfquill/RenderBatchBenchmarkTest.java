@@ -0,0 +1,68 @@
+package org.pdfquill;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.font.FontType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures {@link PDFQuill#renderBatch(List, java.util.concurrent.Executor)} throughput on fixed pools
+ * of 1, 2, 4, ... threads up to the number of cores (at least 4), rendering 30-line receipts with a
+ * QR code from a builder. Run with {@code mvn test -Pbenchmark}.
+ * <p>
+ * Throughput is reported on standard output, the reporting channel of the {@code benchmark} profile.
+ */
+@Tag("benchmark")
+class RenderBatchBenchmarkTest {
+    private static final int DOCUMENTS = 1000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void throughputPerPoolSize() throws Exception {
+        PDFQuill.Builder builder = PDFQuill.builder().withPaperType(PaperType.THERMAL_80MM);
+        List<DocumentSpec> specs = new ArrayList<>(DOCUMENTS);
+        for (int i = 0; i < DOCUMENTS; i++) {
+            int n = i;
+            specs.add(DocumentSpec.of(builder, printer -> printReceipt(printer, n)));
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        int maxThreads = Math.max(4, cores);
+
+        PDFQuill.renderBatch(specs.subList(0, 200), Runnable::run);
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                double best = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    List<byte[]> documents = PDFQuill.renderBatch(specs, executor);
+                    double seconds = (System.nanoTime() - start) / 1e9;
+
+                    assertThat(documents).hasSize(DOCUMENTS);
+                    best = Math.max(best, DOCUMENTS / seconds);
+                }
+                System.out.printf("%d threads, %d cores: %.0f docs/s%n", threads, cores, best);
+            } finally {
+                executor.shutdown();
+                assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+            }
+        }
+    }
+
+    private static void printReceipt(PDFQuill printer, int n) {
+        printer.printLine("PDF QUILL STORE", FontType.BOLD);
+        for (int line = 1; line < 30; line++) {
+            printer.printLine(line + "x Item " + n + "-" + line + " ........ " + (line * 1.25f));
+        }
+        printer.printBarcode("https://example.com/receipt/" + n, BarcodeType.QRCODE);
+    }
+}
@@ -0,0 +1,151 @@
+package org.pdfquill.barcode;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.exceptions.PrinterException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class BarcodeCacheTest {
+
+    @Test
+    void repeatedLookupsReuseTheEncodedBarcode() {
+        BarcodeCache cache = new BarcodeCache(8);
+
+        Barcode first = cache.get("SEAT-12", BarcodeType.QRCODE, 0, 0);
+        Barcode second = cache.get("SEAT-12", BarcodeType.QRCODE, 0, 0);
+        Barcode otherSize = cache.get("SEAT-12", BarcodeType.QRCODE, 100, 100);
+
+        assertThat(second).isSameAs(first);
+        assertThat(otherSize).isNotSameAs(first);
+        assertThat(cache.getHits()).isEqualTo(1);
+        assertThat(cache.getMisses()).isEqualTo(2);
+        assertThat(cache.getHitRate()).isCloseTo(1d / 3, within(1e-9));
+    }
+
+    @Test
+    void hintsArePartOfTheKey() {
+        BarcodeCache cache = new BarcodeCache(8);
+        Map<EncodeHintType, Object> hints = BarcodeUtils.defaultHints();
+        hints.put(EncodeHintType.ERROR_CORRECTION, ErrorCorrectionLevel.H);
+
+        Barcode low = cache.get("https://example.com/ticket/SEAT-12", BarcodeType.QRCODE, 0, 0);
+        Barcode high = cache.get("https://example.com/ticket/SEAT-12", BarcodeType.QRCODE, 0, 0, hints);
+
+        assertThat(high).isNotSameAs(low);
+        assertThat(high.getWidth()).isGreaterThan(low.getWidth());
+        assertThat(cache.get("https://example.com/ticket/SEAT-12", BarcodeType.QRCODE, 0, 0, BarcodeUtils.defaultHints())).isSameAs(low);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedBarcodes() {
+        BarcodeCache cache = new BarcodeCache(2);
+
+        Barcode a = cache.get("A", BarcodeType.CODE128, 0, 0);
+        cache.get("B", BarcodeType.CODE128, 0, 0);
+        cache.get("A", BarcodeType.CODE128, 0, 0);
+        cache.get("C", BarcodeType.CODE128, 0, 0);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("A", BarcodeType.CODE128, 0, 0)).isSameAs(a);
+        long misses = cache.getMisses();
+        cache.get("B", BarcodeType.CODE128, 0, 0);
+        assertThat(cache.getMisses()).isEqualTo(misses + 1);
+    }
+
+    @Test
+    void batchEncodingKeepsRequestOrder() throws Exception {
+        BarcodeCache cache = new BarcodeCache(64);
+        List<BarcodeRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            requests.add(new BarcodeRequest("SEAT-" + i, i % 2 == 0 ? BarcodeType.QRCODE : BarcodeType.CODE128));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Barcode> barcodes;
+        try {
+            barcodes = cache.getAll(requests, executor);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(barcodes).hasSize(40);
+        for (int i = 0; i < 40; i++) {
+            Barcode expected = Barcode.encode("SEAT-" + i, requests.get(i).getBarcodeType(), 0, 0);
+            assertThat(barcodes.get(i).getRectangles()).isEqualTo(expected.getRectangles());
+            assertThat(cache.get("SEAT-" + i, requests.get(i).getBarcodeType(), 0, 0)).isSameAs(barcodes.get(i));
+        }
+    }
+
+    @Test
+    void batchEncodingReportsInvalidPayloads() {
+        BarcodeCache cache = new BarcodeCache(8);
+        List<BarcodeRequest> requests = Arrays.asList(
+                new BarcodeRequest("123", BarcodeType.CODE128),
+                new BarcodeRequest("not digits", BarcodeType.EAN13));
+
+        assertThatThrownBy(() -> cache.getAll(requests))
+                .isInstanceOf(PrinterException.class)
+                .hasMessageContaining("Failed to encode barcode");
+    }
+
+    @Test
+    void failedBatchSkipsTheTasksNotStartedYet() {
+        BarcodeCache cache = new BarcodeCache(8);
+        List<BarcodeRequest> requests = Arrays.asList(
+                new BarcodeRequest("not digits", BarcodeType.EAN13),
+                new BarcodeRequest("123", BarcodeType.CODE128),
+                new BarcodeRequest("456", BarcodeType.CODE128));
+        List<Runnable> queued = new ArrayList<>();
+        AtomicBoolean started = new AtomicBoolean();
+        // runs the failing first task at once and holds the others back
+        Executor executor = task -> {
+            if (started.compareAndSet(false, true)) {
+                task.run();
+            } else {
+                queued.add(task);
+            }
+        };
+
+        assertThatThrownBy(() -> cache.getAll(requests, executor))
+                .isInstanceOf(PrinterException.class)
+                .hasMessageContaining("Failed to encode barcode");
+        queued.forEach(Runnable::run);
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void rejectedBatchTasksAreReportedAsPrinterExceptions() {
+        BarcodeCache cache = new BarcodeCache(8);
+        List<BarcodeRequest> requests = Arrays.asList(
+                new BarcodeRequest("123", BarcodeType.CODE128),
+                new BarcodeRequest("456", BarcodeType.CODE128));
+        List<Runnable> queued = new ArrayList<>();
+        Executor executor = task -> {
+            if (!queued.isEmpty()) {
+                throw new RejectedExecutionException("saturated");
+            }
+            queued.add(task);
+        };
+
+        assertThatThrownBy(() -> cache.getAll(requests, executor))
+                .isInstanceOf(PrinterException.class)
+                .hasCauseInstanceOf(RejectedExecutionException.class);
+        queued.forEach(Runnable::run);
+        assertThat(cache.getMisses()).isZero();
+    }
+}
@@ -0,0 +1,60 @@
+package org.pdfquill.barcode;
+
+import com.google.zxing.common.BitMatrix;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BarcodeTest {
+
+    @Test
+    void linearBarcodeUsesOneFullHeightRectanglePerBar() throws Exception {
+        BitMatrix matrix = BarcodeUtils.encode("123456789012", BarcodeType.CODE128, 0, 40);
+
+        Barcode barcode = Barcode.fromMatrix(BarcodeType.CODE128, matrix);
+
+        int bars = 0;
+        for (int x = 0; x < matrix.getWidth(); x++) {
+            if (matrix.get(x, 0) && (x == 0 || !matrix.get(x - 1, 0))) {
+                bars++;
+            }
+        }
+        assertThat(barcode.getRectangleCount()).isEqualTo(bars);
+        int[] rectangles = barcode.getRectangles();
+        for (int i = 0; i < rectangles.length; i += 4) {
+            assertThat(rectangles[i + 1]).isZero();
+            assertThat(rectangles[i + 3]).isEqualTo(matrix.getHeight());
+        }
+    }
+
+    @Test
+    void rectanglesCoverExactlyTheDarkModules() throws Exception {
+        BitMatrix matrix = BarcodeUtils.encode("https://example.com/ticket/42", BarcodeType.QRCODE, 0, 0);
+
+        Barcode barcode = Barcode.fromMatrix(BarcodeType.QRCODE, matrix);
+
+        BitMatrix painted = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+        int[] rectangles = barcode.getRectangles();
+        for (int i = 0; i < rectangles.length; i += 4) {
+            painted.setRegion(rectangles[i], rectangles[i + 1], rectangles[i + 2], rectangles[i + 3]);
+        }
+        assertThat(painted).isEqualTo(matrix);
+        assertThat(barcode.getWidth()).isEqualTo(matrix.getWidth());
+    }
+
+    @Test
+    void packedRowsMatchTheMatrixBitForBit() throws Exception {
+        BitMatrix matrix = BarcodeUtils.encode("PACKED-ROWS", BarcodeType.QRCODE, 0, 0);
+
+        byte[] rows = Barcode.fromMatrix(BarcodeType.QRCODE, matrix).toPackedRows();
+
+        int stride = (matrix.getWidth() + 7) / 8;
+        assertThat(rows).hasSize(stride * matrix.getHeight());
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                boolean set = (rows[y * stride + x / 8] & (0x80 >>> (x % 8))) != 0;
+                assertThat(set).isEqualTo(matrix.get(x, y));
+            }
+        }
+    }
+}
@@ -17,4 +17,11 @@ class BarcodeUtilsTest {
         assertThat(BarcodeUtils.isQrCode(BarcodeType.QRCODE)).isTrue();
         assertThat(BarcodeUtils.isQrCode(BarcodeType.CODE128)).isFalse();
     }
+
+    @Test
+    void getDotsPerModuleUsesTheLargestWholeScaleThatFits() {
+        // 48mm at 203 dpi is 383 dots
+        assertThat(BarcodeUtils.getDotsPerModule(21, 136.063f, 203)).isEqualTo(18);
+        assertThat(BarcodeUtils.getDotsPerModule(400, 136.063f, 203)).isEqualTo(1);
+    }
 }
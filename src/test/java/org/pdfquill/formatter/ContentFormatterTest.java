@@ -1,8 +1,10 @@
 package org.pdfquill.formatter;
 
 import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import com.google.zxing.common.BitMatrix;
 import org.junit.jupiter.api.Test;
 import org.pdfquill.barcode.BarcodeType;
+import org.pdfquill.barcode.BarcodeUtils;
 import org.pdfquill.settings.font.FontSettings;
 import org.pdfquill.settings.font.FontUtils;
 import org.pdfquill.writer.SplitParts;
@@ -10,6 +12,7 @@ import org.pdfquill.writer.Text;
 import org.pdfquill.writer.TextBuilder;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
 import java.io.IOException;
 import java.util.List;
 
@@ -71,9 +74,27 @@ class ContentFormatterTest {
             BufferedImage image = ContentFormatter.createBarcodeImage("123456", BarcodeType.CODE128, 0, 0);
             assertThat(image.getHeight()).isEqualTo(350);
             assertThat(image.getWidth()).isEqualTo(350);
+            assertThat(image.getType()).isEqualTo(BufferedImage.TYPE_BYTE_BINARY);
+            assertThat(image.getColorModel()).isInstanceOf(IndexColorModel.class);
+            assertThat(image.getColorModel().getPixelSize()).isEqualTo(1);
+            assertThat(image.getRGB(0, 0)).isEqualTo(0xFFFFFFFF);
         } catch (org.pdfquill.exceptions.PrinterException ex) {
             assumeTrue(ex.getCause() instanceof java.awt.AWTError,
                     "Unexpected failure when generating barcode image");
         }
     }
+
+    @Test
+    void createBarcodeImageWrapsThePackedModules() throws Exception {
+        BufferedImage image = ContentFormatter.createBarcodeImage("PACKED", BarcodeType.QRCODE, 120, 120);
+        BitMatrix matrix = BarcodeUtils.encode("PACKED", BarcodeType.QRCODE, 120, 120);
+
+        assertThat(image.getType()).isEqualTo(BufferedImage.TYPE_BYTE_BINARY);
+        assertThat(image.getWidth()).isEqualTo(matrix.getWidth());
+        for (int y = 0; y < matrix.getHeight(); y++) {
+            for (int x = 0; x < matrix.getWidth(); x++) {
+                assertThat(image.getRGB(x, y)).isEqualTo(matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF);
+            }
+        }
+    }
 }
@@ -0,0 +1,72 @@
+package org.pdfquill.image;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageCacheTest {
+
+    @Test
+    void registeredImageEmbedsIntoSeveralDocuments() throws Exception {
+        ImageCache cache = new ImageCache(1024 * 1024);
+        EncodedImage logo = cache.register("logo", png(32, 16));
+
+        for (int i = 0; i < 2; i++) {
+            try (PDDocument document = new PDDocument()) {
+                PDImageXObject image = logo.embed(document);
+                assertThat(image.getWidth()).isEqualTo(32);
+                assertThat(image.getHeight()).isEqualTo(16);
+                assertThat(image.getImage().getRGB(0, 0) & 0xFFFFFF).isEqualTo(0x00FF00);
+            }
+        }
+        assertThat(cache.get("logo")).isSameAs(logo);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedImagesOverBudget() throws Exception {
+        EncodedImage first = EncodedImage.encode(png(64, 64));
+        ImageCache cache = new ImageCache(first.getEncodedSize() * 2L + 1);
+
+        cache.put("a", first);
+        cache.put("b", EncodedImage.encode(png(64, 64)));
+        cache.get("a");
+        cache.put("c", EncodedImage.encode(png(64, 64)));
+
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("c")).isNotNull();
+        assertThat(cache.getSizeBytes()).isLessThanOrEqualTo(cache.getMaxBytes());
+    }
+
+    @Test
+    void imagesLargerThanTheBudgetAreNotCached() throws Exception {
+        EncodedImage image = EncodedImage.encode(png(64, 64));
+        ImageCache cache = new ImageCache(image.getEncodedSize() - 1L);
+        cache.put("logo", EncodedImage.encode(png(8, 8)));
+
+        assertThat(cache.put("logo", image)).isSameAs(image);
+
+        assertThat(cache.get("logo")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.getSizeBytes()).isZero();
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                image.setRGB(x, y, 0x00FF00);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,135 @@
+package org.pdfquill.image;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.settings.CompressionProfile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageFactoryTest {
+
+    @Test
+    void jpegDataIsEmbeddedWithoutRecoding() throws Exception {
+        byte[] jpeg = encode("jpg");
+
+        try (PDDocument document = new PDDocument()) {
+            PDImageXObject image = ImageFactory.createFromBytes(document, jpeg);
+
+            assertThat(ImageFormat.detect(jpeg)).isEqualTo(ImageFormat.JPEG);
+            assertThat(image.getCOSObject().getItem(COSName.FILTER)).isEqualTo(COSName.DCT_DECODE);
+            assertThat(image.getCOSObject().getLength()).isEqualTo(jpeg.length);
+            assertThat(image.getWidth()).isEqualTo(24);
+        }
+    }
+
+    @Test
+    void pngDataKeepsItsPredictorCompressedStream() throws Exception {
+        byte[] png = encode("png");
+
+        try (PDDocument document = new PDDocument()) {
+            PDImageXObject image = ImageFactory.createFromBytes(document, png);
+
+            assertThat(ImageFormat.detect(png)).isEqualTo(ImageFormat.PNG);
+            assertThat(image.getCOSObject().getItem(COSName.FILTER)).isEqualTo(COSName.FLATE_DECODE);
+            assertThat(image.getCOSObject().getDictionaryObject(COSName.DECODE_PARMS)).isNotNull();
+            assertThat(image.getHeight()).isEqualTo(12);
+        }
+    }
+
+    @Test
+    void compressionProfilesTradeSizeForSpeedWithoutChangingPixels() throws Exception {
+        BufferedImage source = gradient();
+
+        try (PDDocument document = new PDDocument()) {
+            long previous = Long.MAX_VALUE;
+            for (CompressionProfile profile : CompressionProfile.values()) {
+                PDImageXObject image = ImageFactory.createFromImage(document, source, profile);
+                long length = image.getCOSObject().getLength();
+
+                assertThat(length).as(profile.name()).isLessThanOrEqualTo(previous);
+                assertThat(image.getImage().getRGB(17, 9)).as(profile.name()).isEqualTo(source.getRGB(17, 9));
+                previous = length;
+            }
+
+            PDImageXObject raw = ImageFactory.createFromImage(document, source, CompressionProfile.NONE);
+            assertThat(raw.getCOSObject().getItem(COSName.FILTER)).isNull();
+            assertThat(raw.getCOSObject().getLength()).isEqualTo(64 * 32 * 3);
+        }
+    }
+
+    @Test
+    void graySamplesAreWrittenUnchangedByEveryProfile() throws Exception {
+        BufferedImage ramp = new BufferedImage(256, 2, BufferedImage.TYPE_BYTE_GRAY);
+        byte[] expected = new byte[256 * 2];
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 256; x++) {
+                ramp.getRaster().setSample(x, y, 0, x);
+                expected[y * 256 + x] = (byte) x;
+            }
+        }
+
+        try (PDDocument document = new PDDocument()) {
+            byte[] balanced = decodedSamples(ImageFactory.createFromImage(document, ramp, CompressionProfile.BALANCED));
+            byte[] fast = decodedSamples(ImageFactory.createFromImage(document, ramp, CompressionProfile.FAST));
+
+            assertThat(balanced).isEqualTo(expected);
+            assertThat(fast).isEqualTo(balanced);
+        }
+    }
+
+    @Test
+    void translucentImagesKeepTheirSoftMask() throws Exception {
+        BufferedImage source = new BufferedImage(8, 8, BufferedImage.TYPE_INT_ARGB);
+        source.setRGB(3, 4, 0x80FF0000);
+
+        try (PDDocument document = new PDDocument()) {
+            for (CompressionProfile profile : CompressionProfile.values()) {
+                PDImageXObject image = ImageFactory.createFromImage(document, source, profile);
+
+                assertThat(image.getSoftMask()).as(profile.name()).isNotNull();
+                assertThat(image.getSoftMask().getImage().getRaster().getSample(3, 4, 0)).isEqualTo(0x80);
+            }
+        }
+    }
+
+    @Test
+    void detectFallsBackToOtherForUnknownHeaders() {
+        assertThat(ImageFormat.detect(new byte[]{'B', 'M', 0, 0})).isEqualTo(ImageFormat.OTHER);
+        assertThat(ImageFormat.detect(new byte[0])).isEqualTo(ImageFormat.OTHER);
+    }
+
+    private static byte[] decodedSamples(PDImageXObject image) throws IOException {
+        try (InputStream in = image.createInputStream()) {
+            return IOUtils.toByteArray(in);
+        }
+    }
+
+    private static BufferedImage gradient() {
+        BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 64; x++) {
+                image.setRGB(x, y, (x * 4) << 16 | (y * 8) << 8 | (x ^ y) & 0xFF);
+            }
+        }
+        return image;
+    }
+
+    private static byte[] encode(String format) throws IOException {
+        BufferedImage image = new BufferedImage(24, 12, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 24; x++) {
+            image.setRGB(x, x / 2, 0xFF0000);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
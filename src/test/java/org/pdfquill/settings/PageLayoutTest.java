@@ -37,4 +37,15 @@ class PageLayoutTest {
 
         assertThat(layout.getFontSettings().getFontSize()).isEqualTo(18);
     }
+
+    @Test
+    void printerDpiDefaultsFromPaperTypeAndSurvivesCopies() {
+        PageLayout layout = new PageLayout(PaperType.THERMAL_58MM);
+        assertThat(layout.getPrinterDpi()).isEqualTo(203);
+        assertThat(new PageLayout(PaperType.A4).getPrinterDpi()).isEqualTo(300);
+
+        layout.setPrinterDpi(180);
+
+        assertThat(new PageLayout(layout).getPrinterDpi()).isEqualTo(180);
+    }
 }
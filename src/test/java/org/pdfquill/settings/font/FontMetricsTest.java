@@ -0,0 +1,66 @@
+package org.pdfquill.settings.font;
+
+import org.apache.pdfbox.cos.COSDictionary;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FontMetricsTest {
+
+    @Test
+    void widthsMatchPdfBoxBitForBit() throws Exception {
+        String text = "Total R$ 1.234,56 – café com pão “especial” €";
+        PDType1Font[] fonts = {PDType1Font.HELVETICA, PDType1Font.HELVETICA_BOLD, PDType1Font.TIMES_ITALIC, PDType1Font.COURIER};
+
+        for (PDType1Font font : fonts) {
+            FontMetrics metrics = FontMetrics.of(font);
+            assertThat(metrics.getRawWidth(text, 0, text.length())).isEqualTo(font.getStringWidth(text));
+            assertThat(metrics.getRawWidth(text, 6, 17)).isEqualTo(font.getStringWidth(text.substring(6, 17)));
+            for (int i = 0; i < text.length(); i++) {
+                assertThat(metrics.getRawWidth(text.charAt(i))).isEqualTo(font.getStringWidth(text.substring(i, i + 1)));
+            }
+            assertThat(FontUtils.getTextWidth(text, font, 9)).isEqualTo(font.getStringWidth(text) * 9 / 1000f);
+        }
+    }
+
+    @Test
+    void metricsAreSharedPerFont() {
+        assertThat(FontMetrics.of(PDType1Font.HELVETICA)).isSameAs(FontMetrics.of(PDType1Font.HELVETICA));
+    }
+
+    @Test
+    void fontsOutsideTheStandardConstantsCanBeCollected() throws Exception {
+        WeakReference<PDType1Font> collected = measureLoadedFont();
+
+        for (int i = 0; i < 50 && collected.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertThat(collected.get()).isNull();
+    }
+
+    @Test
+    void unencodableCharactersFailLikePdfBox() {
+        FontMetrics metrics = FontMetrics.of(PDType1Font.HELVETICA);
+
+        assertThatThrownBy(() -> metrics.getRawWidth('中')).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> metrics.getRawWidth('\t')).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static WeakReference<PDType1Font> measureLoadedFont() throws Exception {
+        COSDictionary dictionary = new COSDictionary();
+        dictionary.setItem(COSName.TYPE, COSName.FONT);
+        dictionary.setItem(COSName.SUBTYPE, COSName.TYPE1);
+        dictionary.setName(COSName.BASE_FONT, "Helvetica");
+        PDType1Font font = new PDType1Font(dictionary);
+
+        assertThat(FontMetrics.of(font).getRawWidth("loaded", 0, 6)).isEqualTo(font.getStringWidth("loaded"));
+        assertThat(FontMetrics.of(font)).isNotSameAs(FontMetrics.of(PDType1Font.HELVETICA));
+        return new WeakReference<>(font);
+    }
+}
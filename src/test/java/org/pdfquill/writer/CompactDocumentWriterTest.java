@@ -0,0 +1,116 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.image.ImageFactory;
+import org.pdfquill.settings.CompressionProfile;
+import org.pdfquill.settings.font.FontMetrics;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactDocumentWriterTest {
+
+    @Test
+    void onlyStreamsStayAtTheTopLevel() throws Exception {
+        byte[] pdf = write(CompressionProfile.BALANCED);
+
+        // three content streams, one image, one object stream and the cross-reference stream
+        assertThat(topLevelObjects(pdf)).isEqualTo(6);
+        try (PDDocument document = PDDocument.load(pdf)) {
+            assertThat(document.getNumberOfPages()).isEqualTo(3);
+            assertThat(new PDFTextStripper().getText(document)).contains("page 0", "page 2");
+            PDImageXObject image = (PDImageXObject) document.getPage(1).getResources()
+                    .getXObject(COSName.getPDFName("Im1"));
+            assertThat(image.getImage().getRGB(2, 1)).isEqualTo(0xFF00FF00);
+        }
+    }
+
+    @Test
+    void uncompressedProfileWritesPlainObjectStreams() throws Exception {
+        byte[] pdf = write(CompressionProfile.NONE);
+
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        assertThat(text).contains("/Type /ObjStm", "/Type /XRef", "/Type /Catalog");
+        try (PDDocument document = PDDocument.load(pdf)) {
+            assertThat(new String(IOUtils.toByteArray(document.getPage(2).getContents()), StandardCharsets.US_ASCII))
+                    .contains("(page 2) Tj");
+        }
+    }
+
+    @Test
+    void freeListHeadKeepsItsFullGeneration() throws Exception {
+        byte[] pdf = write(CompressionProfile.NONE);
+
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+        int xref = text.lastIndexOf("/Type /XRef");
+        int dictionaryStart = text.lastIndexOf("<<", xref);
+        int streamStart = text.indexOf("\nstream\n", xref) + "\nstream\n".length();
+        Matcher widths = Pattern.compile("/W \\[(\\d+) (\\d+) (\\d+)\\]")
+                .matcher(text.substring(dictionaryStart, streamStart));
+        assertThat(widths.find()).isTrue();
+        int typeWidth = Integer.parseInt(widths.group(1));
+        int fieldWidth = Integer.parseInt(widths.group(2));
+        int indexWidth = Integer.parseInt(widths.group(3));
+
+        assertThat(typeWidth).isEqualTo(1);
+        assertThat(indexWidth).isGreaterThanOrEqualTo(2);
+        int position = streamStart;
+        assertThat(pdf[position++]).isZero();
+        for (int i = 0; i < fieldWidth; i++) {
+            assertThat(pdf[position++]).isZero();
+        }
+        long generation = 0;
+        for (int i = 0; i < indexWidth; i++) {
+            generation = (generation << 8) | (pdf[position++] & 0xFF);
+        }
+        assertThat(generation).isEqualTo(0xFFFF);
+    }
+
+    private static byte[] write(CompressionProfile compression) throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            ContentStreamWriter contentStream = new ContentStreamWriter(compression);
+            BufferedImage pixels = new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB);
+            pixels.setRGB(2, 1, 0x00FF00);
+            PDImageXObject image = ImageFactory.createFromImage(document, pixels, compression);
+            for (int i = 0; i < 3; i++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                contentStream.bindToPage(page);
+                contentStream.beginText();
+                contentStream.setFont(PDType1Font.HELVETICA, 10);
+                contentStream.newLineAtOffset(20, 700);
+                contentStream.showText("page " + i, FontMetrics.of(PDType1Font.HELVETICA));
+                contentStream.endText();
+                if (i == 1) {
+                    contentStream.drawImage(image, 20, 600, 40, 40);
+                }
+                contentStream.writeTo(document, page, 0f);
+            }
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            new CompactDocumentWriter(compression).write(document, out);
+            return out.toByteArray();
+        }
+    }
+
+    private static int topLevelObjects(byte[] pdf) {
+        Matcher matcher = Pattern.compile("\\n\\d+ 0 obj\\n").matcher(new String(pdf, StandardCharsets.ISO_8859_1));
+        int count = 0;
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,130 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.settings.CompressionProfile;
+import org.pdfquill.settings.font.FontMetrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class ContentStreamWriterTest {
+
+    @Test
+    void writesOperatorsWithFixedPrecisionNumbers() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.A6);
+            document.addPage(page);
+            ContentStreamWriter writer = new ContentStreamWriter();
+            writer.bindToPage(page);
+
+            writer.beginText();
+            writer.setFont(PDType1Font.HELVETICA, 12);
+            writer.newLineAtOffset(4f, 401.63782f);
+            writer.setLeading(13.8f);
+            writer.newLine();
+            writer.showText("a(b)\\c", FontMetrics.of(PDType1Font.HELVETICA));
+            writer.endText();
+            writer.addRect(-0.5f, 0.000004f, 100f, 1e-6f);
+            writer.fill();
+            writer.writeTo(document, page, -12.25f);
+
+            String content = new String(IOUtils.toByteArray(page.getContents()), StandardCharsets.US_ASCII);
+            assertThat(content).isEqualTo("1 0 0 1 0 -12.25 cm\n"
+                    + "BT\n/F1 12 Tf\n4 401.63782 Td\n13.8 TL\nT*\n(a\\(b\\)\\\\c) Tj\nET\n"
+                    + "-0.5 0 100 0 re\nf\n");
+            assertThat(page.getResources().getFont(COSName.getPDFName("F1")))
+                    .isNotNull();
+        }
+    }
+
+    @Test
+    void compressionProfileSelectsTheContentFilter() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            String expected = null;
+            for (CompressionProfile profile : CompressionProfile.values()) {
+                PDPage page = new PDPage();
+                ContentStreamWriter writer = new ContentStreamWriter(profile);
+                writer.bindToPage(page);
+                for (int i = 0; i < 200; i++) {
+                    writer.addRect(i, 2f * i, 10f, 0.5f);
+                    writer.fill();
+                }
+                writer.writeTo(document, page, -3f);
+
+                COSStream stream = page.getContentStreams().next().getCOSObject();
+                String content = new String(IOUtils.toByteArray(page.getContents()), StandardCharsets.US_ASCII);
+                assertThat(stream.getItem(COSName.FILTER))
+                        .isEqualTo(profile == CompressionProfile.NONE ? null : COSName.FLATE_DECODE);
+                assertThat(content).startsWith("1 0 0 1 0 -3 cm\n0 0 10 0.5 re\n");
+                if (expected != null) {
+                    assertThat(content).isEqualTo(expected);
+                }
+                expected = content;
+            }
+        }
+    }
+
+    @Test
+    void unencodableTextLeavesTheStreamUntouched() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            ContentStreamWriter writer = new ContentStreamWriter();
+            writer.bindToPage(page);
+            writer.beginText();
+            int size = writer.size();
+
+            assertThatThrownBy(() -> writer.showText("ok 中", FontMetrics.of(PDType1Font.COURIER)))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThat(writer.size()).isEqualTo(size);
+        }
+    }
+
+    @Test
+    void emittingLinesDoesNotAllocate() throws Exception {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            ContentStreamWriter writer = new ContentStreamWriter();
+            FontMetrics metrics = FontMetrics.of(PDType1Font.COURIER);
+            String line = "1x Espresso ............ 4.50";
+            writer.bindToPage(page);
+            writer.setFont(PDType1Font.COURIER, 9);
+            // warm up and grow the buffer
+            for (int i = 0; i < 20_000; i++) {
+                writeLine(writer, metrics, line, i);
+            }
+
+            writer.bindToPage(page);
+            writer.setFont(PDType1Font.COURIER, 9);
+            long threadId = Thread.currentThread().getId();
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < 20_000; i++) {
+                writeLine(writer, metrics, line, i);
+            }
+            long allocated = allocations.getThreadAllocatedBytes(threadId) - before;
+
+            assertThat(allocated).isLessThan(4096);
+        }
+    }
+
+    private static void writeLine(ContentStreamWriter writer, FontMetrics metrics, String line, int i) throws Exception {
+        writer.newLineAtOffset(i % 7 * 1.25f, -10.35f);
+        writer.showText(line, metrics);
+    }
+}
@@ -0,0 +1,121 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.graphics.image.PDImageXObject;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.PageLayout;
+
+import java.awt.image.BufferedImage;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageRegistryTest {
+
+    @Test
+    void resolveReusesXObjectForIdenticalPixels() throws Exception {
+        try (PDDocument document = new PDDocument()) {
+            ImageRegistry registry = new ImageRegistry(document);
+
+            PDImageXObject first = registry.resolve(solidImage(0x336699));
+            PDImageXObject second = registry.resolve(solidImage(0x336699));
+            PDImageXObject other = registry.resolve(solidImage(0x993366));
+
+            assertThat(second).isSameAs(first);
+            assertThat(other).isNotSameAs(first);
+            assertThat(registry.getHits()).isEqualTo(1);
+            assertThat(registry.getMisses()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void collidingHashesKeepTheirOwnXObjects() throws Exception {
+        BufferedImage[] colliding = collidingImages();
+        assertThat(ImageRegistry.hashPixels(colliding[0])).isEqualTo(ImageRegistry.hashPixels(colliding[1]));
+
+        try (PDDocument document = new PDDocument()) {
+            ImageRegistry registry = new ImageRegistry(document);
+
+            PDImageXObject first = registry.resolve(colliding[0]);
+            PDImageXObject second = registry.resolve(colliding[1]);
+
+            assertThat(second).isNotSameAs(first);
+            assertThat(second.getImage().getRGB(1, 0)).isEqualTo(colliding[1].getRGB(1, 0));
+            assertThat(registry.resolve(colliding[0])).isSameAs(first);
+            assertThat(registry.resolve(colliding[1])).isSameAs(second);
+            assertThat(registry.getMisses()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void repeatedImageDoesNotGrowTheDocument() throws Exception {
+        byte[] once = renderWithLogo(1);
+        byte[] many = renderWithLogo(20);
+
+        assertThat(many.length).isLessThan(once.length + 2_000);
+    }
+
+    private static byte[] renderWithLogo(int copies) throws Exception {
+        PDFWriter writer = new PDFWriter(new PageLayout(PaperType.A4));
+        for (int i = 0; i < copies; i++) {
+            writer.writeImage(noiseImage(), 40f, 40f);
+        }
+        return writer.saveAndGetBytes();
+    }
+
+    /**
+     * Builds two 2x1 images with the same FNV-1a pixel hash: first pixels whose state after one round
+     * shares its upper 32 bits, then second pixels cancelling the lower 32 bits.
+     */
+    private static BufferedImage[] collidingImages() {
+        long offset = 0xcbf29ce484222325L;
+        long prime = 0x100000001b3L;
+        Map<Integer, Integer> seen = new HashMap<>();
+        Random random = new Random(7);
+        while (true) {
+            int pixel = random.nextInt();
+            long state = (offset ^ pixel) * prime;
+            Integer previous = seen.putIfAbsent((int) (state >>> 32), pixel);
+            if (previous == null) {
+                continue;
+            }
+            int second = (int) (((offset ^ previous) * prime) ^ state);
+            if (second < 0 || previous == pixel) {
+                continue;
+            }
+            return new BufferedImage[]{image(previous, 0), image(pixel, second)};
+        }
+    }
+
+    private static BufferedImage image(int... pixels) {
+        BufferedImage image = new BufferedImage(pixels.length, 1, BufferedImage.TYPE_INT_ARGB);
+        for (int x = 0; x < pixels.length; x++) {
+            image.setRGB(x, 0, pixels[x]);
+        }
+        return image;
+    }
+
+    private static BufferedImage solidImage(int rgb) {
+        BufferedImage image = new BufferedImage(8, 8, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < 8; x++) {
+            for (int y = 0; y < 8; y++) {
+                image.setRGB(x, y, rgb);
+            }
+        }
+        return image;
+    }
+
+    private static BufferedImage noiseImage() {
+        BufferedImage image = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(42);
+        for (int x = 0; x < 64; x++) {
+            for (int y = 0; y < 64; y++) {
+                image.setRGB(x, y, random.nextInt());
+            }
+        }
+        return image;
+    }
+}
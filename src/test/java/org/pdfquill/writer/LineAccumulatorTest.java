@@ -1,5 +1,6 @@
 package org.pdfquill.writer;
 
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
 import org.junit.jupiter.api.Test;
 import org.pdfquill.settings.font.FontSettings;
 import org.pdfquill.settings.font.FontUtils;
@@ -15,15 +16,17 @@ class LineAccumulatorTest {
     @Test
     void addChunkTracksHorizontalOffsetsAndFlushClearsBuffer() throws IOException {
         LineAccumulator accumulator = new LineAccumulator(12f);
-        FontSettings fontSettings = new FontSettings();
+        FontSettings regular = new FontSettings();
+        FontSettings bold = new FontSettings();
+        bold.setSelectedFont(PDType1Font.COURIER_BOLD);
 
-        Text first = new Text("AB", fontSettings);
-        float firstWidth = FontUtils.getTextWidth("AB", fontSettings.getSelectedFont(), fontSettings.getFontSize());
-        accumulator.addChunk(first, firstWidth, fontSettings.getFontSize());
+        Text first = new Text("AB", regular);
+        float firstWidth = FontUtils.getTextWidth("AB", regular.getSelectedFont(), regular.getFontSize());
+        accumulator.addChunk(first, firstWidth, regular.getFontSize());
 
-        Text second = new Text("CD", fontSettings);
-        float secondWidth = FontUtils.getTextWidth("CD", fontSettings.getSelectedFont(), fontSettings.getFontSize());
-        accumulator.addChunk(second, secondWidth, fontSettings.getFontSize());
+        Text second = new Text("CD", bold);
+        float secondWidth = FontUtils.getTextWidth("CD", bold.getSelectedFont(), bold.getFontSize());
+        accumulator.addChunk(second, secondWidth, bold.getFontSize());
 
         List<TextLinePlan> plans = new ArrayList<>();
         accumulator.flushInto(plans);
@@ -39,4 +42,27 @@ class LineAccumulatorTest {
         assertThat(plans).hasSize(1);
         assertThat(accumulator.isEmpty()).isTrue();
     }
+
+    @Test
+    void consecutiveChunksWithTheSameFontAreMerged() throws IOException {
+        LineAccumulator accumulator = new LineAccumulator(12f);
+        FontSettings regular = new FontSettings();
+        FontSettings sameLook = new FontSettings();
+        FontSettings bold = new FontSettings();
+        bold.setSelectedFont(PDType1Font.COURIER_BOLD);
+
+        accumulator.addChunk(new Text("Qty ", regular), 20f, regular.getFontSize());
+        accumulator.addChunk(new Text("2 ", sameLook), 10f, sameLook.getFontSize());
+        accumulator.addChunk(new Text("x ", regular), 10f, regular.getFontSize());
+        accumulator.addChunk(new Text("Coffee", bold), 30f, bold.getFontSize());
+        accumulator.addChunk(new Text(" 4.50", regular), 25f, regular.getFontSize());
+
+        List<TextLinePlan> plans = new ArrayList<>();
+        accumulator.flushInto(plans);
+
+        List<Text> texts = plans.getFirst().getTextList();
+        assertThat(texts).extracting(Text::getText).containsExactly("Qty 2 x ", "Coffee", " 4.50");
+        assertThat(texts).extracting(Text::getX).containsExactly(12f, 52f, 82f);
+        assertThat(accumulator.getWidth()).isZero();
+    }
 }
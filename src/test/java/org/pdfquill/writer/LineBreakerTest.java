@@ -0,0 +1,139 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.formatter.ContentFormatter;
+import org.pdfquill.settings.font.FontSettings;
+import org.pdfquill.settings.font.FontUtils;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LineBreakerTest {
+    private static final PDType1Font[] FONTS = {
+            PDType1Font.COURIER, PDType1Font.HELVETICA, PDType1Font.HELVETICA_BOLD, PDType1Font.TIMES_ITALIC
+    };
+
+    @Test
+    void plansMatchTheSplitAndRetryAlgorithm() throws IOException {
+        Random random = new Random(42);
+        for (int round = 0; round < 300; round++) {
+            List<Text> texts = new ArrayList<>();
+            int runs = 1 + random.nextInt(5);
+            for (int i = 0; i < runs; i++) {
+                texts.add(new Text(randomText(random), randomFont(random)));
+            }
+            float maxLineWidth = 20f + random.nextInt(400);
+
+            List<TextLinePlan> expected = legacyPlans(texts, 7f, maxLineWidth);
+            List<TextLinePlan> actual = new LineBreaker(7f, maxLineWidth).breakLines(texts);
+
+            assertThat(describe(actual)).isEqualTo(describe(expected));
+        }
+    }
+
+    @Test
+    void unbrokenRunWrapsIntoFullLines() throws IOException {
+        FontSettings fontSettings = new FontSettings();
+        String text = String.join("", Collections.nCopies(200_000, "x"));
+
+        List<TextLinePlan> plans = new LineBreaker(0f, 100f)
+                .breakLines(Collections.singletonList(new Text(text, fontSettings)));
+
+        float charWidth = FontUtils.getCharWidth('x', fontSettings.getSelectedFont(), fontSettings.getFontSize());
+        int perLine = (int) (100f / charWidth);
+        assertThat(plans).hasSize((200_000 + perLine - 1) / perLine);
+        assertThat(plans.getFirst().getTextList().getFirst().getText()).hasSize(perLine);
+    }
+
+    private static String randomText(Random random) {
+        String alphabet = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789.,;-";
+        StringBuilder sb = new StringBuilder();
+        int length = random.nextInt(160);
+        for (int i = 0; i < length; i++) {
+            int pick = random.nextInt(10);
+            if (pick == 0) {
+                sb.append(' ');
+            } else if (pick == 1 && random.nextBoolean()) {
+                sb.append("  ");
+            } else {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static FontSettings randomFont(Random random) {
+        FontSettings fontSettings = new FontSettings();
+        fontSettings.setFontSize(6 + random.nextInt(14));
+        fontSettings.setSelectedFont(FONTS[random.nextInt(FONTS.length)]);
+        return fontSettings;
+    }
+
+    private static List<String> describe(List<TextLinePlan> plans) {
+        List<String> lines = new ArrayList<>();
+        for (TextLinePlan plan : plans) {
+            StringBuilder sb = new StringBuilder().append(plan.getMaxFontSize()).append(':');
+            for (Text text : plan.getTextList()) {
+                sb.append('[').append(text.getText()).append('@').append(text.getX()).append(']');
+            }
+            lines.add(sb.toString());
+        }
+        return lines;
+    }
+
+    // Reference implementation: the deque-based algorithm previously inlined in PDFWriter
+    private static List<TextLinePlan> legacyPlans(List<Text> texts, float startX, float maxLineWidth) throws IOException {
+        Deque<Text> pendingTexts = new ArrayDeque<>(texts);
+        List<TextLinePlan> lines = new ArrayList<>();
+        LineAccumulator currentLine = new LineAccumulator(startX);
+
+        while (!pendingTexts.isEmpty()) {
+            Text current = pendingTexts.pollFirst();
+            String rawText = current.getText();
+            if (rawText == null || rawText.isEmpty()) {
+                continue;
+            }
+
+            PDType1Font font = current.getFontSetting().getSelectedFont();
+            int fontSize = current.getFontSetting().getFontSize();
+            float availableWidth = maxLineWidth - currentLine.getWidth();
+            float textWidth = FontUtils.getTextWidth(rawText, font, fontSize);
+
+            if (textWidth <= availableWidth) {
+                currentLine.addChunk(new Text(rawText, current.getFontSetting()), textWidth, fontSize);
+                continue;
+            }
+
+            if (availableWidth <= 0 || (!currentLine.isEmpty()
+                    && FontUtils.getTextWidth(rawText.substring(0, 1), font, fontSize) > availableWidth)) {
+                currentLine.flushInto(lines);
+                pendingTexts.addFirst(current);
+                continue;
+            }
+
+            SplitParts split = ContentFormatter.splitText(current, availableWidth);
+            if (split.head() != null && !split.head().isEmpty()) {
+                float headWidth = FontUtils.getTextWidth(split.head(), font, fontSize);
+                currentLine.addChunk(new Text(split.head(), current.getFontSetting()), headWidth, fontSize);
+            }
+
+            if (split.tail() == null || split.tail().isEmpty()) {
+                continue;
+            }
+
+            currentLine.flushInto(lines);
+            pendingTexts.addFirst(new Text(split.tail(), current.getFontSetting()));
+        }
+
+        currentLine.flushInto(lines);
+        return lines;
+    }
+}
@@ -1,15 +1,27 @@
 package org.pdfquill.writer;
 
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
 import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.CompressionProfile;
 import org.pdfquill.settings.PageLayout;
 import org.pdfquill.settings.font.FontType;
 
+import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.assertj.core.api.Assertions.within;
 
 class PDFWriterTest {
@@ -84,6 +96,151 @@ class PDFWriterTest {
         }
     }
 
+    @Test
+    void saveDropsBlankPageLeftBehindByCutSignal() throws Exception {
+        PageLayout layout = new PageLayout(PaperType.A4);
+        PDFWriter writer = new PDFWriter(layout);
+
+        writer.writeLine("Receipt", FontType.DEFAULT);
+        writer.writeCutSignal();
+
+        byte[] pdfBytes = writer.saveAndGetBytes();
+
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            assertThat(document.getNumberOfPages()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void saveKeepsPageThatOnlyHoldsAnImage() throws Exception {
+        PageLayout layout = new PageLayout(PaperType.A4);
+        PDFWriter writer = new PDFWriter(layout);
+
+        writer.writeImage(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), 20f, 20f);
+
+        byte[] pdfBytes = writer.saveAndGetBytes();
+
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            assertThat(document.getNumberOfPages()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void thermalPageIsSizedToItsContent() throws Exception {
+        PageLayout layout = new PageLayout(PaperType.THERMAL_80MM);
+        PDFWriter writer = new PDFWriter(layout);
+
+        writer.writeLine("One", FontType.DEFAULT);
+        writer.writeLine("Two", FontType.DEFAULT);
+
+        byte[] pdfBytes = writer.saveAndGetBytes();
+
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            PDRectangle mediaBox = document.getPage(0).getMediaBox();
+            float expectedHeight = layout.getMarginTop() + layout.getLineHeight() + layout.getMarginBottom();
+            assertThat(mediaBox.getLowerLeftY()).isZero();
+            assertThat(mediaBox.getHeight()).isCloseTo(expectedHeight, within(0.01f));
+            assertThat(mediaBox.getWidth()).isEqualTo(layout.getPageWidth());
+
+            RecordingStripper stripper = new RecordingStripper();
+            stripper.getText(document);
+            assertThat(stripper.getYPositions()).hasSize(2);
+            assertThat(stripper.getYPositions().get(0)).isCloseTo(layout.getMarginTop(), within(0.5f));
+        }
+    }
+
+    @Test
+    void longThermalReceiptSplitsIntoIndividuallySizedSegments() throws Exception {
+        PageLayout layout = new PageLayout(PaperType.THERMAL_58MM);
+        PDFWriter writer = new PDFWriter(layout);
+
+        int linesPerPage = (int) Math.floor(layout.getPageWritingHeight() / layout.getLineHeight());
+        for (int i = 0; i < linesPerPage + 3; i++) {
+            writer.writeLine("Item " + i, FontType.DEFAULT);
+        }
+
+        byte[] pdfBytes = writer.saveAndGetBytes();
+
+        try (PDDocument document = PDDocument.load(pdfBytes)) {
+            assertThat(document.getNumberOfPages()).isEqualTo(2);
+            float firstHeight = document.getPage(0).getMediaBox().getHeight();
+            float secondHeight = document.getPage(1).getMediaBox().getHeight();
+            assertThat(firstHeight).isLessThanOrEqualTo(layout.getPageHeight());
+            assertThat(secondHeight).isLessThan(firstHeight);
+
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setStartPage(2);
+            stripper.setEndPage(2);
+            assertThat(stripper.getText(document)).contains("Item " + (linesPerPage + 2));
+        }
+    }
+
+    @Test
+    void linesShareOneTextObjectAndFontSelection() throws Exception {
+        PageLayout layout = new PageLayout(PaperType.A4);
+        PDFWriter writer = new PDFWriter(layout);
+
+        for (int i = 0; i < 30; i++) {
+            writer.writeLine("Line " + i, FontType.DEFAULT);
+        }
+        writer.writeImage(new BufferedImage(4, 4, BufferedImage.TYPE_INT_RGB), 10f, 10f);
+        writer.writeLine("After image", FontType.DEFAULT);
+
+        try (PDDocument document = PDDocument.load(writer.saveAndGetBytes())) {
+            String content = new String(IOUtils.toByteArray(document.getPage(0).getContents()), StandardCharsets.US_ASCII);
+            assertThat(count(content, "BT\n")).isEqualTo(2);
+            assertThat(count(content, " Tf\n")).isEqualTo(1);
+            assertThat(count(content, "T*\n")).isEqualTo(29);
+
+            RecordingStripper stripper = new RecordingStripper();
+            stripper.getText(document);
+            java.util.List<Float> yPositions = stripper.getYPositions();
+            assertThat(yPositions).hasSize(31);
+            for (int i = 1; i < 30; i++) {
+                assertThat(yPositions.get(i) - yPositions.get(i - 1)).isCloseTo(layout.getLineHeight(), within(0.01f));
+            }
+        }
+    }
+
+    @Test
+    void failedSaveStillReleasesBuffersAndTempFiles(@TempDir Path directory) throws Exception {
+        PageLayout layout = new PageLayout(PaperType.A4);
+        WriterPool pool = new WriterPool(CompressionProfile.BALANCED, 1,
+                MemoryUsageSetting.setupMixed(1L << 20).setTempDir(directory.toFile()));
+        PDFWriter writer = new PDFWriter(layout, false, pool);
+        int linesPerPage = (int) Math.floor(layout.getPageWritingHeight() / layout.getLineHeight());
+        for (int i = 0; i < linesPerPage * 3; i++) {
+            writer.writeLine("Line " + i, FontType.DEFAULT);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).hasSize(1);
+        }
+
+        OutputStream failing = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("sink failed");
+            }
+        };
+        assertThatThrownBy(() -> writer.writeTo(failing))
+                .isInstanceOf(IOException.class)
+                .hasMessage("sink failed");
+
+        assertThat(writer.isClosed()).isTrue();
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static int count(String content, String token) {
+        int count = 0;
+        for (int index = content.indexOf(token); index >= 0; index = content.indexOf(token, index + 1)) {
+            count++;
+        }
+        return count;
+    }
+
     private static final class RecordingStripper extends PDFTextStripper {
         private final java.util.List<Float> yPositions = new java.util.ArrayList<>();
 
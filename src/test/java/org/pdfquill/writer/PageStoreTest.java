@@ -0,0 +1,58 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.cos.COSStream;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageStoreTest {
+
+    @Test
+    void spilledStreamsReadBackRawAndDecoded(@TempDir Path directory) throws Exception {
+        byte[] content = "BT\n/F1 12 Tf\n(spilled) Tj\nET\n".getBytes(StandardCharsets.US_ASCII);
+        ByteArrayOutputStream deflated = new ByteArrayOutputStream();
+        try (DeflaterOutputStream out = new DeflaterOutputStream(deflated)) {
+            out.write(content);
+        }
+        byte[] encoded = deflated.toByteArray();
+
+        PageStore store = new PageStore(MemoryUsageSetting.setupMixed(1L << 20).setTempDir(directory.toFile()));
+        try {
+            COSStream first = store.store(new byte[]{1, 2, 3}, 2);
+            COSStream second = store.store(encoded, encoded.length);
+            second.setItem(COSName.FILTER, COSName.FLATE_DECODE);
+
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files).hasSize(1);
+            }
+            assertThat(first.getLength()).isEqualTo(2);
+            assertThat(read(first.createRawInputStream())).containsExactly(1, 2);
+            assertThat(read(second.createRawInputStream())).isEqualTo(encoded);
+            assertThat(read(second.createInputStream())).isEqualTo(content);
+            assertThat(read(second.createRawInputStream())).isEqualTo(encoded);
+        } finally {
+            store.close();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    private static byte[] read(InputStream in) throws Exception {
+        try (InputStream input = in) {
+            return IOUtils.toByteArray(input);
+        }
+    }
+}
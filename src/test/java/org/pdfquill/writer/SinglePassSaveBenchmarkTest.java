@@ -0,0 +1,77 @@
+package org.pdfquill.writer;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.pdfquill.paper.PaperType;
+import org.pdfquill.settings.PageLayout;
+import org.pdfquill.settings.font.FontType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the per-document cost of the single save against the save, reload and second save the
+ * writer used to go through to set crop boxes and drop blank pages. The round trip is reproduced by
+ * loading the saved bytes and saving them again, which is what the removed {@code cropPDF} did. Run
+ * with {@code mvn test -Pbenchmark}.
+ * <p>
+ * Timings are reported on standard output, the reporting channel of the {@code benchmark} profile.
+ */
+@Tag("benchmark")
+class SinglePassSaveBenchmarkTest {
+    private static final int WARMUP = 300;
+    private static final int DOCUMENTS = 1000;
+    private static final int ROUNDS = 5;
+
+    @Test
+    void singleSaveAgainstSaveReloadSave() throws Exception {
+        for (PaperType paperType : new PaperType[]{PaperType.THERMAL_80MM, PaperType.A4}) {
+            PageLayout layout = new PageLayout(paperType);
+            for (int i = 0; i < WARMUP; i++) {
+                roundTrip(render(layout));
+            }
+
+            double single = Double.MAX_VALUE;
+            double roundTrip = Double.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < DOCUMENTS; i++) {
+                    render(layout);
+                }
+                single = Math.min(single, (System.nanoTime() - start) / 1e3 / DOCUMENTS);
+
+                start = System.nanoTime();
+                for (int i = 0; i < DOCUMENTS; i++) {
+                    roundTrip(render(layout));
+                }
+                roundTrip = Math.min(roundTrip, (System.nanoTime() - start) / 1e3 / DOCUMENTS);
+            }
+
+            assertThat(single).isLessThan(roundTrip);
+            System.out.printf("%s: single save %.0f us/doc, save-reload-save %.0f us/doc, saving %.0f%%%n",
+                    paperType, single, roundTrip, 100 * (1 - single / roundTrip));
+        }
+    }
+
+    /**
+     * Prints a 40-line document and saves it once, as the writer does now.
+     */
+    private static byte[] render(PageLayout layout) throws IOException {
+        PDFWriter writer = new PDFWriter(layout);
+        for (int i = 0; i < 40; i++) {
+            writer.writeLine((i + 1) + "x Item " + i + " ........ " + (i * 1.25f), i == 0 ? FontType.BOLD : FontType.DEFAULT);
+        }
+        return writer.saveAndGetBytes();
+    }
+
+    private static byte[] roundTrip(byte[] pdf) throws IOException {
+        try (PDDocument document = PDDocument.load(pdf)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(pdf.length);
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package org.pdfquill.writer;
+
+import org.junit.jupiter.api.Test;
+import org.pdfquill.settings.CompressionProfile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriterPoolTest {
+
+    @Test
+    void keepsUpToCapacitySmallBuffers() {
+        WriterPool pool = new WriterPool(CompressionProfile.FAST, 1);
+        ContentStreamWriter first = pool.acquireContentStream();
+        ContentStreamWriter second = pool.acquireContentStream();
+
+        pool.releaseContentStream(first);
+        pool.releaseContentStream(second);
+
+        assertThat(first.getCompression()).isEqualTo(CompressionProfile.FAST);
+        assertThat(pool.getIdleCount()).isEqualTo(1);
+        assertThat(pool.acquireContentStream()).isSameAs(first);
+    }
+
+    @Test
+    void dropsBuffersThatGrewPastTheLimit() {
+        WriterPool pool = new WriterPool(CompressionProfile.BALANCED, 4);
+        ContentStreamWriter contentStream = pool.acquireContentStream();
+        for (int i = 0; i < WriterPool.MAX_RETAINED_BYTES / 16; i++) {
+            contentStream.addRect(i, i, 10f, 10f);
+        }
+        WriterPool.OutputBuffer output = pool.acquireOutput();
+        output.write(new byte[WriterPool.MAX_RETAINED_BYTES + 1], 0, WriterPool.MAX_RETAINED_BYTES + 1);
+
+        pool.releaseContentStream(contentStream);
+        pool.releaseOutput(output);
+
+        assertThat(pool.getIdleCount()).isZero();
+        assertThat(pool.acquireOutput()).isNotSameAs(output);
+    }
+}